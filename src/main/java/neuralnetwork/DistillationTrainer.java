@@ -0,0 +1,211 @@
+package neuralnetwork;
+
+import neuralnetwork.helpers.MathOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Helper class for training smaller student Neural Network to imitate larger,
+ * already trained teacher network (knowledge distillation). <br>
+ * <br>
+ * Student is trained on responses of teacher softened by temperature - logit of
+ * each teacher response is divided by temperature before applying sigmoid, so
+ * student learns also how sure teacher is about each output, not only which
+ * output is the highest. During training the same temperature is applied to
+ * responses of student. Output error of network is difference between expected
+ * value and response, which is gradient of cross-entropy with respect to logit,
+ * so error of student is set to gradient of cross-entropy between softened
+ * responses of teacher and student, multiplied by square of temperature, with
+ * respect to logit of student - temperature times difference between softened
+ * responses. This way its magnitude doesn't depend on temperature and it
+ * doesn't vanish when response of student saturates. Trained student is used
+ * without temperature. Inputs don't need labels, but when they are provided
+ * errors can be blended with errors of student on them. Teacher is not
+ * modified.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetwork
+ * @see NeuralNetworkTrainer
+ */
+public class DistillationTrainer {
+
+    private static final double MINIMUM_PROBABILITY = 1e-12;
+    private final NeuralNetwork teacher;
+    private final NeuralNetwork student;
+    private final double temperature;
+    private double hardLabelWeight = 0D;
+    private long shuffleSeed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * Constructor. Teacher and student have to have the same number of inputs and
+     * outputs, otherwise {@link IllegalArgumentException} is thrown.
+     *
+     * @param teacher     trained Neural Network which responses are imitated.
+     * @param student     Neural Network to train.
+     * @param temperature temperature softening teacher responses - one keeps them
+     *                    unchanged, higher values move them closer to 0.5.
+     */
+    public DistillationTrainer(final NeuralNetwork teacher, final NeuralNetwork student, final double temperature) {
+        if (teacher.getNumberOfInputs() != student.getNumberOfInputs()
+                || teacher.getNumberOfOutputs() != student.getNumberOfOutputs()) {
+            throw new IllegalArgumentException("Teacher and student have to have the same inputs and outputs!");
+        }
+        if (temperature <= 0D) {
+            throw new IllegalArgumentException("Temperature has to be positive!");
+        }
+        this.teacher = teacher;
+        this.student = student;
+        this.temperature = temperature;
+    }
+
+    /**
+     * Setter for weight of labels when training on labelled inputs. Error of
+     * student is weighted average of its error on softened teacher responses
+     * and its error on labels, calculated without temperature.
+     *
+     * @param hardLabelWeight weight of label, between zero (only teacher
+     *                        responses are used) and one (only labels are used).
+     */
+    public void setHardLabelWeight(final double hardLabelWeight) {
+        if (hardLabelWeight < 0D || hardLabelWeight > 1D) {
+            throw new IllegalArgumentException("Weight of labels has to be between 0 and 1!");
+        }
+        this.hardLabelWeight = hardLabelWeight;
+    }
+
+    /**
+     * Setter for seed of random number generator used for shuffling inputs, so
+     * training can be repeated.
+     *
+     * @param shuffleSeed seed used for shuffling inputs.
+     */
+    public void setShuffleSeed(final long shuffleSeed) {
+        this.shuffleSeed = shuffleSeed;
+    }
+
+    /**
+     * Trains student on softened teacher responses for given inputs without
+     * labels.
+     *
+     * @param inputs             input vectors used for training
+     * @param numberOfIterations number of training iterations.
+     * @param learningRate       learning rate used in training.
+     * @return list of root mean square errors (RMSE) from all iterations.
+     */
+    public List<Double> train(final Collection<List<Double>> inputs, final int numberOfIterations,
+            final double learningRate) {
+        return trainStudent(calculateSoftTargets(inputs), Map.of(), numberOfIterations, learningRate);
+    }
+
+    /**
+     * Trains student on softened teacher responses for given inputs, blended with
+     * their labels using weight set by
+     * {@link DistillationTrainer#setHardLabelWeight(double)}. Each label has to
+     * have as many values as network has outputs, otherwise
+     * {@link IllegalArgumentException} is thrown before training.
+     *
+     * @param trainingMap        map containing input vectors and expected values
+     *                           used for training.
+     * @param numberOfIterations number of training iterations.
+     * @param learningRate       learning rate used in training.
+     * @return list of root mean square errors (RMSE) from all iterations.
+     */
+    public List<Double> train(final Map<List<Double>, List<Double>> trainingMap, final int numberOfIterations,
+            final double learningRate) {
+        if (trainingMap.values().stream().anyMatch(label -> label.size() != student.getNumberOfOutputs())) {
+            throw new IllegalArgumentException("Size of label doesn't match number of network outputs!");
+        }
+        return trainStudent(calculateSoftTargets(trainingMap.keySet()), trainingMap, numberOfIterations,
+                learningRate);
+    }
+
+    /**
+     * Compares accuracy and size of teacher and student on testing map of given
+     * trainer.
+     *
+     * @param tester trainer which testing map is used
+     * @return accuracy and number of parameters of teacher and student.
+     * @see NeuralNetworkTrainer#test(ResponseCalculator)
+     */
+    public String compare(final NeuralNetworkTrainer tester) {
+        return String.format("TEACHER-ACCURACY=%.5f\t\tTEACHER-PARAMETERS=%d\t\tSTUDENT-ACCURACY=%.5f"
+                + "\t\tSTUDENT-PARAMETERS=%d", tester.calculateAccuracy(teacher),
+                teacher.getMemoryFootprint().getNumberOfParameters(), tester.calculateAccuracy(student),
+                student.getMemoryFootprint().getNumberOfParameters());
+    }
+
+    /**
+     * Getter for teacher.
+     *
+     * @return teacher Neural Network.
+     */
+    public NeuralNetwork getTeacher() {
+        return teacher;
+    }
+
+    /**
+     * Getter for student.
+     *
+     * @return student Neural Network.
+     */
+    public NeuralNetwork getStudent() {
+        return student;
+    }
+
+    static List<Double> soften(final List<Double> response, final double temperature) {
+        return response.stream().map(probability -> {
+            final double clampedProbability = Math.min(1D - MINIMUM_PROBABILITY,
+                    Math.max(MINIMUM_PROBABILITY, probability));
+            return MathOperations.sigmoid(Math.log(clampedProbability / (1D - clampedProbability)) / temperature);
+        }).collect(toList());
+    }
+
+    private Map<List<Double>, List<Double>> calculateSoftTargets(final Collection<List<Double>> inputs) {
+        final List<List<Double>> inputsList = new ArrayList<>(inputs);
+        final List<List<Double>> teacherResponses = teacher.calculateResponses(inputsList);
+        final Map<List<Double>, List<Double>> softTargets = new HashMap<>(2 * inputsList.size());
+        for (int i = 0; i < inputsList.size(); ++i) {
+            softTargets.put(inputsList.get(i), soften(teacherResponses.get(i), temperature));
+        }
+        return softTargets;
+    }
+
+    private List<Double> trainStudent(final Map<List<Double>, List<Double>> softTargets,
+            final Map<List<Double>, List<Double>> labels, final int numberOfIterations, final double learningRate) {
+        final List<List<Double>> inputs = new ArrayList<>(softTargets.keySet());
+        final Random shuffleRandom = new Random(shuffleSeed);
+        final List<Double> rmses = new ArrayList<>(numberOfIterations);
+        for (int i = 0; i < numberOfIterations; ++i) {
+            Collections.shuffle(inputs, shuffleRandom);
+            rmses.add(inputs.stream()
+                    .mapToDouble(input -> student.train(input,
+                            responses -> calculateExpectedValues(responses, softTargets.get(input), labels.get(input)),
+                            learningRate).stream().mapToDouble(MathOperations::squareValue).sum())
+                    .sum() / 2D);
+        }
+        return rmses;
+    }
+
+    private List<Double> calculateExpectedValues(final List<Double> responses, final List<Double> softTargets,
+            final List<Double> labels) {
+        final List<Double> softResponses = soften(responses, temperature);
+        final double labelWeight = labels == null ? 0D : hardLabelWeight;
+        final List<Double> expectedValues = new ArrayList<>(responses.size());
+        for (int i = 0; i < responses.size(); ++i) {
+            final double softError = temperature * (softTargets.get(i) - softResponses.get(i));
+            final double hardError = labels == null ? 0D : labels.get(i) - responses.get(i);
+            expectedValues.add(responses.get(i) + (1D - labelWeight) * softError + labelWeight * hardError);
+        }
+        return expectedValues;
+    }
+
+}
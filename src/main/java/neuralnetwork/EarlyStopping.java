@@ -0,0 +1,119 @@
+package neuralnetwork;
+
+/**
+ * Early stopping configuration used by {@link NeuralNetworkTrainer}. <br>
+ * <br>
+ * After each training iteration monitored metric is compared with the best
+ * value so far. Improvement smaller than minimum delta is not counted as
+ * improvement. Metric is calculated on testing map of the trainer, so it
+ * measures how well network generalizes to samples not used for training.
+ * Training stops when metric doesn't improve for number of iterations defined
+ * by patience, and weights from the best iteration are restored. Weights of
+ * the best iteration are kept as copy of weights arrays, not as copy of entire
+ * network.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetworkTrainer#setEarlyStopping(EarlyStopping)
+ */
+public class EarlyStopping {
+
+    /**
+     * Metric monitored by early stopping.
+     */
+    public enum Metric {
+
+        /**
+         * Ratio of correctly classified samples from testing map, higher is better.
+         */
+        ACCURACY,
+
+        /**
+         * Root mean square error on testing map, calculated the same way as
+         * training RMSE, lower is better.
+         */
+        RMSE
+
+    }
+
+    private final Metric metric;
+    private final int patience;
+    private final double minimumDelta;
+    private double bestValue;
+    private int bestIteration;
+    private int iterationsWithoutImprovement;
+    private double[][] bestWeights;
+
+    /**
+     * Constructor.
+     *
+     * @param metric       monitored metric.
+     * @param patience     number of iterations without improvement after which
+     *                     training stops.
+     * @param minimumDelta minimum change of metric counted as improvement.
+     */
+    public EarlyStopping(final Metric metric, final int patience, final double minimumDelta) {
+        if (patience < 1 || minimumDelta < 0) {
+            throw new IllegalArgumentException("Patience has to be positive and minimum delta non-negative!");
+        }
+        this.metric = metric;
+        this.patience = patience;
+        this.minimumDelta = minimumDelta;
+        reset();
+    }
+
+    /**
+     * Getter for monitored metric.
+     *
+     * @return monitored metric.
+     */
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Returns the best value of monitored metric in last training.
+     *
+     * @return the best value of monitored metric.
+     */
+    public double getBestValue() {
+        return bestValue;
+    }
+
+    /**
+     * Returns iteration with the best value of monitored metric in last training.
+     *
+     * @return iteration with the best value of monitored metric, zero if no
+     *         iteration was completed.
+     */
+    public int getBestIteration() {
+        return bestIteration;
+    }
+
+    void reset() {
+        bestValue = metric == Metric.ACCURACY ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        bestIteration = 0;
+        iterationsWithoutImprovement = 0;
+        bestWeights = null;
+    }
+
+    boolean update(final int iteration, final double value, final NeuralNetwork neuralNetwork) {
+        final boolean improved = metric == Metric.ACCURACY ? value > bestValue + minimumDelta
+                : value < bestValue - minimumDelta;
+        if (improved) {
+            bestValue = value;
+            bestIteration = iteration;
+            iterationsWithoutImprovement = 0;
+            bestWeights = neuralNetwork.exportWeights();
+        } else {
+            ++iterationsWithoutImprovement;
+        }
+        return iterationsWithoutImprovement < patience;
+    }
+
+    void restoreBestWeights(final NeuralNetwork neuralNetwork) {
+        if (bestWeights != null) {
+            neuralNetwork.importWeights(bestWeights);
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package neuralnetwork;
+
+import java.util.Arrays;
+
+/**
+ * Report of memory used by Neural Network and, optionally, by data held by
+ * {@link NeuralNetworkTrainer}. <br>
+ * <br>
+ * Heap sizes are estimated from number and layout of objects, assuming 64-bit
+ * JVM with compressed references, so they are close to, but not exactly the
+ * same as sizes measured by profiler. Comparing them with raw size of weights
+ * and data shows overhead of object-oriented representation.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetwork#getMemoryFootprint()
+ * @see NeuralNetworkTrainer#getMemoryFootprint()
+ */
+public class MemoryFootprint {
+
+    private final long[] numberOfParametersPerLayer;
+    private final long heapBytes;
+    private final long offHeapBytes;
+    private final long activationBytesPerSample;
+    private final long datasetHeapBytes;
+    private final long datasetRawBytes;
+    private final long savedNetworkHeapBytes;
+
+    MemoryFootprint(final long[] numberOfParametersPerLayer, final long heapBytes, final long offHeapBytes,
+            final long activationBytesPerSample) {
+        this(numberOfParametersPerLayer, heapBytes, offHeapBytes, activationBytesPerSample, 0, 0, 0);
+    }
+
+    private MemoryFootprint(final long[] numberOfParametersPerLayer, final long heapBytes, final long offHeapBytes,
+            final long activationBytesPerSample, final long datasetHeapBytes, final long datasetRawBytes,
+            final long savedNetworkHeapBytes) {
+        this.numberOfParametersPerLayer = numberOfParametersPerLayer.clone();
+        this.heapBytes = heapBytes;
+        this.offHeapBytes = offHeapBytes;
+        this.activationBytesPerSample = activationBytesPerSample;
+        this.datasetHeapBytes = datasetHeapBytes;
+        this.datasetRawBytes = datasetRawBytes;
+        this.savedNetworkHeapBytes = savedNetworkHeapBytes;
+    }
+
+    /**
+     * Returns number of weights and biases of each layer, in order of
+     * {@link NeuralNetwork#exportWeights()}.
+     *
+     * @return array of numbers of parameters of each layer.
+     */
+    public long[] getNumberOfParametersPerLayer() {
+        return numberOfParametersPerLayer.clone();
+    }
+
+    /**
+     * Returns number of weights and biases of entire network.
+     *
+     * @return number of parameters.
+     */
+    public long getNumberOfParameters() {
+        return Arrays.stream(numberOfParametersPerLayer).sum();
+    }
+
+    /**
+     * Returns size of all weights and biases stored as plain doubles, regardless
+     * of how they are actually stored.
+     *
+     * @return raw size of weights in bytes.
+     */
+    public long getWeightBytes() {
+        return getNumberOfParameters() * Double.BYTES;
+    }
+
+    /**
+     * Returns estimated heap size of network - neurons, layers and weights kept on
+     * heap.
+     *
+     * @return estimated heap size of network in bytes.
+     */
+    public long getHeapBytes() {
+        return heapBytes;
+    }
+
+    /**
+     * Returns size of weights kept outside of heap.
+     *
+     * @return size of weights kept outside of heap in bytes.
+     */
+    public long getOffHeapBytes() {
+        return offHeapBytes;
+    }
+
+    /**
+     * Returns estimated size of responses of all layers allocated for each input
+     * vector when calculating responses, e.g. by
+     * {@link NeuralNetwork#calculateResponses(java.util.List)}. Multiplied by
+     * batch size and number of concurrent requests gives memory needed for
+     * inference besides network itself.
+     *
+     * @return estimated size of responses per input vector in bytes.
+     */
+    public long getActivationBytesPerSample() {
+        return activationBytesPerSample;
+    }
+
+    /**
+     * Returns estimated heap size of training and testing maps held by trainer,
+     * together with list of training inputs shuffled during training. Zero for
+     * footprint of network alone.
+     *
+     * @return estimated heap size of data in bytes.
+     */
+    public long getDatasetHeapBytes() {
+        return datasetHeapBytes;
+    }
+
+    /**
+     * Returns size of all values of training and testing maps held by trainer
+     * stored as plain doubles. Zero for footprint of network alone.
+     *
+     * @return raw size of data in bytes.
+     */
+    public long getDatasetRawBytes() {
+        return datasetRawBytes;
+    }
+
+    /**
+     * Returns estimated heap size of copy of network kept by trainer for
+     * restoring it. Zero for footprint of network alone.
+     *
+     * @return estimated heap size of saved network in bytes.
+     */
+    public long getSavedNetworkHeapBytes() {
+        return savedNetworkHeapBytes;
+    }
+
+    /**
+     * Returns estimated heap size of network, data and saved network together.
+     *
+     * @return estimated total heap size in bytes.
+     */
+    public long getTotalHeapBytes() {
+        return heapBytes + datasetHeapBytes + savedNetworkHeapBytes;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder report = new StringBuilder();
+        for (int i = 0; i < numberOfParametersPerLayer.length; ++i) {
+            report.append(String.format("LAYER=%d\t\tPARAMETERS=%d%n", i, numberOfParametersPerLayer[i]));
+        }
+        report.append(String.format("PARAMETERS=%d\t\tWEIGHT-BYTES=%d\t\tHEAP-BYTES=%d\t\tOFF-HEAP-BYTES=%d%n",
+                getNumberOfParameters(), getWeightBytes(), heapBytes, offHeapBytes));
+        report.append(String.format("ACTIVATION-BYTES-PER-SAMPLE=%d%n", activationBytesPerSample));
+        report.append(String.format("DATASET-HEAP-BYTES=%d\t\tDATASET-RAW-BYTES=%d\t\tSAVED-NETWORK-HEAP-BYTES=%d%n",
+                datasetHeapBytes, datasetRawBytes, savedNetworkHeapBytes));
+        report.append(String.format("TOTAL-HEAP-BYTES=%d", getTotalHeapBytes()));
+        return report.toString();
+    }
+
+    MemoryFootprint withTrainerData(final long datasetHeapBytes, final long datasetRawBytes,
+            final long savedNetworkHeapBytes) {
+        return new MemoryFootprint(numberOfParametersPerLayer, heapBytes, offHeapBytes, activationBytesPerSample,
+                datasetHeapBytes, datasetRawBytes, savedNetworkHeapBytes);
+    }
+
+}
@@ -1,38 +1,93 @@
 package neuralnetwork;
 
+import neuralnetwork.convolution.SpatialLayer;
+import neuralnetwork.helpers.MathOperations;
+import neuralnetwork.helpers.MemoryOperations;
 import neuralnetwork.neuron.InputNeuron;
 import neuralnetwork.neuron.Neuron;
 import neuralnetwork.neuron.OutputNeuron;
+import neuralnetwork.neuron.PreviousLayer;
 import neuralnetwork.neuron.ResponseProvider;
+import neuralnetwork.neuron.WeightBuffer;
+import neuralnetwork.profiling.LayerPhase;
+import neuralnetwork.profiling.LayerProfiler;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 
 /**
- * Object-oriented Neural Network.
+ * Object-oriented Neural Network. <br>
+ * <br>
+ * Methods calculating responses, training and accessing weights are guarded
+ * by read-write lock, so weights can be safely replaced while network is used
+ * by other threads. Methods which only read weights, e.g.
+ * {@link NeuralNetwork#calculateResponses(List)}, can run concurrently, while
+ * methods changing state of neurons or weights run exclusively.
  *
  * @author Paweł Rutkowski S18277
  * @see Neuron
  * @see InputNeuron
  * @see OutputNeuron
  */
-public class NeuralNetwork implements Serializable {
+public class NeuralNetwork implements ResponseCalculator, Serializable {
 
-    private static final long serialVersionUID = -5423205492506068915L;
+    private static final long serialVersionUID = 7418730927625618447L;
+    private static final int ARRAY_LIST_DEFAULT_CAPACITY = 10;
+    private static final int CACHED_INTEGERS = 128;
+    private static final int PREVIOUS_LAYER_POSITIONS_CAPACITY_FACTOR = 2;
+    static final long NEURAL_NETWORK_BYTES = MemoryOperations.objectBytes(10, Integer.BYTES + Long.BYTES + 1);
+    static final long INPUT_NEURON_BYTES = MemoryOperations.objectBytes(0, Double.BYTES);
+    static final long NEURON_BYTES = MemoryOperations.objectBytes(3, Integer.BYTES + 2 * Double.BYTES);
+    static final long OUTPUT_NEURON_BYTES = MemoryOperations.objectBytes(3, Integer.BYTES + 3 * Double.BYTES);
+    static final long PREVIOUS_LAYER_BYTES = MemoryOperations.objectBytes(2, 0);
+    static final long WEIGHT_BUFFER_BYTES = MemoryOperations.objectBytes(1, 0);
+    private static final long DOUBLE_BUFFER_BYTES = MemoryOperations.objectBytes(1, 5 * Integer.BYTES + Long.BYTES + 1);
+    private static final long UNMODIFIABLE_LIST_BYTES = MemoryOperations.objectBytes(2, 0);
+    private static final long BOXED_INTEGER_BYTES = MemoryOperations.objectBytes(0, Integer.BYTES);
+    private static final long BOXED_DOUBLE_BYTES = MemoryOperations.objectBytes(0, Double.BYTES);
+    private final List<SpatialLayer> spatialLayers = new ArrayList<>();
+    private final List<WeightBuffer> spatialWeights = new ArrayList<>();
     private final List<List<Neuron>> neurons = new ArrayList<>();
     private final List<InputNeuron> inputLayer = new ArrayList<>();
     private final List<OutputNeuron> outputLayer = new ArrayList<>();
+    private final List<WeightBuffer> weights = new ArrayList<>();
+    private int numberOfFrozenLayers = 0;
+    private boolean cachingFrozenResponses = false;
+    private transient Map<List<Double>, double[]> frozenResponses;
+    private transient volatile long weightsVersion = 0;
+    private transient LayerProfiler profiler;
+    private transient double[][] spatialResponses;
+    private transient ReadWriteLock lock = new ReentrantReadWriteLock();
 
     /**
-     * Only constructor. Creates and connects all neurons together.
+     * Creates and connects all neurons together. Initial weights are drawn
+     * uniformly from range (-0.1, 0.1).
      *
      * @param numberOfInputs                number of network inputs
      * @param numberOfOutputs               number of network outputs
@@ -41,10 +96,62 @@ public class NeuralNetwork implements Serializable {
      */
     public NeuralNetwork(final int numberOfInputs, final int numberOfOutputs,
             final int... numberOfNeuronsPerHiddenLayer) {
+        this(WeightInitialization.UNIFORM, ThreadLocalRandom.current().nextLong(), numberOfInputs, numberOfOutputs,
+                numberOfNeuronsPerHiddenLayer);
+    }
+
+    /**
+     * Creates and connects all neurons together. Weights of each layer are
+     * allocated as single array and initialized in parallel using given scheme.
+     * Networks created with the same seed and topology have the same initial
+     * weights.
+     *
+     * @param weightInitialization          scheme used for initial weights
+     * @param seed                          seed of random number generator used
+     *                                      for initial weights
+     * @param numberOfInputs                number of network inputs
+     * @param numberOfOutputs               number of network outputs
+     * @param numberOfNeuronsPerHiddenLayer array of numbers of neurons in each
+     *                                      hidden layer
+     */
+    public NeuralNetwork(final WeightInitialization weightInitialization, final long seed, final int numberOfInputs,
+            final int numberOfOutputs, final int... numberOfNeuronsPerHiddenLayer) {
         initializeInputLayer(numberOfInputs);
         initializeHiddenLayers(numberOfNeuronsPerHiddenLayer);
         initializeOutputLayer(numberOfOutputs);
-        connectNeurons();
+        connectNeurons(weightInitialization, new SplittableRandom(seed));
+    }
+
+    /**
+     * Creates network which inputs are processed by given spatial layers, e.g.
+     * convolution and pooling layers, before being passed to fully connected
+     * layers. Input of each spatial layer has to match output of previous one,
+     * otherwise {@link IllegalArgumentException} is thrown. Number of network
+     * inputs is equal to input size of first spatial layer. Weights of spatial
+     * layers are initialized using given scheme, same as weights of fully
+     * connected layers.
+     *
+     * @param weightInitialization          scheme used for initial weights
+     * @param seed                          seed of random number generator used
+     *                                      for initial weights
+     * @param spatialLayers                 spatial layers in order, starting from
+     *                                      network inputs
+     * @param numberOfOutputs               number of network outputs
+     * @param numberOfNeuronsPerHiddenLayer array of numbers of neurons in each
+     *                                      fully connected hidden layer
+     * @see neuralnetwork.convolution.ConvolutionLayer
+     * @see neuralnetwork.convolution.PoolingLayer
+     */
+    public NeuralNetwork(final WeightInitialization weightInitialization, final long seed,
+            final List<? extends SpatialLayer> spatialLayers, final int numberOfOutputs,
+            final int... numberOfNeuronsPerHiddenLayer) {
+        initializeSpatialLayers(spatialLayers);
+        initializeInputLayer(spatialLayers.get(spatialLayers.size() - 1).getOutputSize());
+        initializeHiddenLayers(numberOfNeuronsPerHiddenLayer);
+        initializeOutputLayer(numberOfOutputs);
+        final SplittableRandom random = new SplittableRandom(seed);
+        connectSpatialLayers(weightInitialization, random);
+        connectNeurons(weightInitialization, random);
     }
 
     /**
@@ -55,10 +162,57 @@ public class NeuralNetwork implements Serializable {
      * @return list consisting of responses of each output layer neuron (output
      *         vector)
      */
+    @Override
     public List<Double> calculateResponse(final List<Double> inputs) {
-        setInputLayerValues(inputs);
-        neurons.forEach(neuralLayer -> neuralLayer.forEach(Neuron::calculateResponse));
-        return outputLayer.stream().map(Neuron::getResponse).collect(toList());
+        lock.writeLock().lock();
+        try {
+            setInputLayerValues(inputs);
+            for (int i = calculateFrozenResponses(inputs); i < neurons.size(); ++i) {
+                calculateLayerResponse(i);
+            }
+            return outputLayer.stream().map(Neuron::getResponse).collect(toList());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Calculate network responses for batch of inputs. Weights of each neuron are
+     * read once per batch instead of once per input vector, which makes it faster
+     * than calling {@link NeuralNetwork#calculateResponse(List)} for each input
+     * vector. Doesn't modify state of neurons, so responses of neurons and frozen
+     * layers cache are not affected. Size of each input vector has to match
+     * network inputs size, otherwise {@link IllegalArgumentException} is thrown.
+     *
+     * @param inputs list of input vectors
+     * @return list of output vectors, in order of input vectors
+     */
+    public List<List<Double>> calculateResponses(final List<List<Double>> inputs) {
+        lock.readLock().lock();
+        try {
+            double[][] responses = inputs.stream().map(input -> {
+                if (getNumberOfInputs() != input.size()) {
+                    throw new IllegalArgumentException(
+                            "Number of network inputs and passed number of inputs doesn't match!");
+                }
+                final double[] values = input.stream().mapToDouble(Double::doubleValue).toArray();
+                return spatialLayers.isEmpty() ? values : calculateSpatialResponses(values)[spatialLayers.size()];
+            }).toArray(double[][]::new);
+            int numberOfPreviousNeurons = inputLayer.size();
+            for (int i = 0; i < neurons.size(); ++i) {
+                final LayerProfiler.Measurement measurement = profiler == null ? null
+                        : profiler.start(i, LayerPhase.FORWARD);
+                responses = calculateLayerResponses(weights.get(i), numberOfPreviousNeurons, responses);
+                numberOfPreviousNeurons = neurons.get(i).size();
+                if (measurement != null) {
+                    measurement.stop(calculateForwardFlops(i) * responses.length);
+                }
+            }
+            return Arrays.stream(responses).map(response -> Arrays.stream(response).boxed().collect(toList()))
+                    .collect(toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -76,11 +230,427 @@ public class NeuralNetwork implements Serializable {
      *                       adjustments error is multiplied by this value
      * @return list of errors from output layer
      */
-    public List<Double> train(final List<Double> inputs, final List<Double> expectedValues, final double learningRate) {
-        setExpectedResponses(expectedValues);
-        calculateResponse(inputs);
-        backpropagateErrorsAndAdjustWeights(learningRate);
-        return outputLayer.stream().map(Neuron::getError).collect(Collectors.toList());
+    public List<Double> train(final List<Double> inputs, final List<Double> expectedValues,
+            final double learningRate) {
+        lock.writeLock().lock();
+        try {
+            checkWeightsWritable();
+            setExpectedResponses(expectedValues);
+            calculateResponse(inputs);
+            backpropagateErrorsAndAdjustWeights(learningRate);
+            ++weightsVersion;
+            return outputLayer.stream().map(Neuron::getError).collect(Collectors.toList());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Double> train(final List<Double> inputs, final UnaryOperator<List<Double>> expectedValuesOfResponses,
+            final double learningRate) {
+        lock.writeLock().lock();
+        try {
+            checkWeightsWritable();
+            setExpectedResponses(expectedValuesOfResponses.apply(calculateResponse(inputs)));
+            backpropagateErrorsAndAdjustWeights(learningRate);
+            ++weightsVersion;
+            return outputLayer.stream().map(Neuron::getError).collect(Collectors.toList());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns number of network inputs.
+     *
+     * @return number of network inputs.
+     */
+    public int getNumberOfInputs() {
+        return spatialLayers.isEmpty() ? inputLayer.size() : spatialLayers.get(0).getInputSize();
+    }
+
+    /**
+     * Returns number of network outputs.
+     *
+     * @return number of network outputs.
+     */
+    public int getNumberOfOutputs() {
+        return outputLayer.size();
+    }
+
+    /**
+     * Returns number increased each time weights of this network change, either by
+     * training or by importing weights. Can be used to detect whether responses
+     * calculated earlier are still valid.
+     *
+     * @return current version of weights.
+     */
+    public long getWeightsVersion() {
+        return weightsVersion;
+    }
+
+    /**
+     * Returns copy of all weights of the network in compact form - one array per
+     * layer, starting from layer closest to network inputs. Array of layer
+     * contains row for each neuron consisting of weights of connections with
+     * neurons in previous layer followed by bias. Spatial layers come before
+     * fully connected layers, layers without weights have empty arrays.
+     *
+     * @return copy of weights of each layer
+     * @see NeuralNetwork#importWeights(double[][])
+     */
+    public double[][] exportWeights() {
+        lock.readLock().lock();
+        try {
+            return streamAllWeights().map(WeightBuffer::toArray).toArray(double[][]::new);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces all weights of the network with given ones. Weights have to be in
+     * form returned by {@link NeuralNetwork#exportWeights()} of network with the
+     * same topology, otherwise {@link IllegalArgumentException} is thrown.
+     * Weights mapped read-only can't be replaced, so
+     * {@link IllegalStateException} is thrown.
+     *
+     * @param weights weights of each layer
+     */
+    public void importWeights(final double[][] weights) {
+        lock.writeLock().lock();
+        try {
+            checkWeightsWritable();
+            final List<WeightBuffer> allWeights = streamAllWeights().collect(toList());
+            if (weights.length != allWeights.size()) {
+                throw new IllegalArgumentException("Number of layers doesn't match network topology!");
+            }
+            for (int i = 0; i < weights.length; ++i) {
+                if (weights[i].length != allWeights.get(i).size()) {
+                    throw new IllegalArgumentException("Number of weights in layer doesn't match network topology!");
+                }
+            }
+            for (int i = 0; i < weights.length; ++i) {
+                allWeights.get(i).copyFrom(weights[i]);
+            }
+            clearFrozenResponses();
+            ++weightsVersion;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves weights of fully connected layers outside of heap or back to heap.
+     * Weights kept outside of heap don't count towards heap size and are not
+     * scanned by garbage collector, so heap usage doesn't depend on number of
+     * weights. Weights of spatial layers are always kept on heap.
+     *
+     * @param storingWeightsOffHeap whether weights should be kept outside of heap
+     * @see WeightBuffer
+     */
+    public void setStoringWeightsOffHeap(final boolean storingWeightsOffHeap) {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < weights.size(); ++i) {
+                final WeightBuffer layerWeights = weights.get(i);
+                if (layerWeights.isDirect() != storingWeightsOffHeap) {
+                    final WeightBuffer movedWeights = storingWeightsOffHeap
+                            ? WeightBuffer.allocateDirect(layerWeights.size())
+                            : WeightBuffer.wrap(new double[layerWeights.size()]);
+                    movedWeights.copyFrom(layerWeights);
+                    replaceLayerWeights(i, movedWeights);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether weights of all fully connected layers are kept outside of
+     * heap, either moved there or mapped from file.
+     *
+     * @return true if weights are kept outside of heap.
+     */
+    public boolean isStoringWeightsOffHeap() {
+        lock.readLock().lock();
+        try {
+            return weights.stream().allMatch(WeightBuffer::isDirect);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Saves all weights to file in form read by
+     * {@link neuralnetwork.helpers.WeightOperations#readWeights(java.io.DataInput)},
+     * without copying them all to heap at once. Saved weights can be mapped into
+     * network using {@link NeuralNetwork#mapWeights(Path, boolean)}.
+     *
+     * @param path path of file to write weights to
+     * @throws IOException if writing fails
+     */
+    public void saveWeights(final Path path) throws IOException {
+        lock.readLock().lock();
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(path)))) {
+                final List<WeightBuffer> allWeights = streamAllWeights().collect(toList());
+                output.writeInt(allWeights.size());
+                for (final WeightBuffer layerWeights : allWeights) {
+                    output.writeInt(layerWeights.size());
+                    layerWeights.write(output);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Maps weights of fully connected layers directly from file saved using
+     * {@link NeuralNetwork#saveWeights(Path)}, so they are kept outside of heap
+     * and loaded from disk only when used. Weights of spatial layers are copied.
+     * Weights adjusted by training are not written back to file, but file has to
+     * be writable. Weights of different topology cause
+     * {@link IllegalArgumentException}.
+     *
+     * @param path path of file containing weights
+     * @throws IOException if file can't be read or mapped
+     */
+    public void mapWeights(final Path path) throws IOException {
+        mapWeights(path, false);
+    }
+
+    /**
+     * Maps weights of fully connected layers directly from file saved using
+     * {@link NeuralNetwork#saveWeights(Path)}, like
+     * {@link NeuralNetwork#mapWeights(Path)}. Weights mapped read-only require
+     * file to be only readable, e.g. shared by many inference processes, but
+     * training network or importing weights throws
+     * {@link IllegalStateException} until weights are moved to heap using
+     * {@link NeuralNetwork#setStoringWeightsOffHeap(boolean)}.
+     *
+     * @param path     path of file containing weights
+     * @param readOnly whether weights are mapped for inference only
+     * @throws IOException if file can't be read or mapped
+     */
+    public void mapWeights(final Path path, final boolean readOnly) throws IOException {
+        lock.writeLock().lock();
+        try {
+            try (FileChannel channel = readOnly ? FileChannel.open(path, StandardOpenOption.READ)
+                    : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final List<WeightBuffer> allWeights = streamAllWeights().collect(toList());
+                if (readInt(channel, 0) != allWeights.size()) {
+                    throw new IllegalArgumentException("Number of layers doesn't match network topology!");
+                }
+                long position = Integer.BYTES;
+                final List<WeightBuffer> mappedWeights = new ArrayList<>(allWeights.size());
+                for (final WeightBuffer layerWeights : allWeights) {
+                    final int size = readInt(channel, position);
+                    if (size != layerWeights.size()) {
+                        throw new IllegalArgumentException(
+                                "Number of weights in layer doesn't match network topology!");
+                    }
+                    position += Integer.BYTES;
+                    if (position + (long) size * Double.BYTES > channel.size()) {
+                        throw new EOFException("Weights file is too short!");
+                    }
+                    mappedWeights.add(WeightBuffer.map(channel, position, size, readOnly));
+                    position += (long) size * Double.BYTES;
+                }
+                for (int i = 0; i < spatialWeights.size(); ++i) {
+                    spatialWeights.get(i).copyFrom(mappedWeights.get(i));
+                }
+                for (int i = 0; i < weights.size(); ++i) {
+                    replaceLayerWeights(i, mappedWeights.get(spatialWeights.size() + i));
+                }
+            }
+            clearFrozenResponses();
+            ++weightsVersion;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns report of memory used by network - number of parameters of each
+     * layer, estimated heap size of neurons, layers and weights compared to raw
+     * size of weights, size of weights kept outside of heap and size of responses
+     * allocated for each input vector.
+     *
+     * @return memory footprint of network.
+     * @see NeuralNetworkTrainer#getMemoryFootprint()
+     */
+    public MemoryFootprint getMemoryFootprint() {
+        lock.readLock().lock();
+        try {
+            final List<WeightBuffer> allWeights = streamAllWeights().collect(toList());
+            long heapBytes = NEURAL_NETWORK_BYTES + MemoryOperations.readWriteLockBytes()
+                    + 2 * MemoryOperations.arrayListBytes(Math.max(ARRAY_LIST_DEFAULT_CAPACITY, spatialLayers.size()))
+                    + 2 * MemoryOperations.arrayListBytes(Math.max(ARRAY_LIST_DEFAULT_CAPACITY, neurons.size()))
+                    + 2 * MemoryOperations.arrayListBytes(outputLayer.size())
+                    + MemoryOperations.arrayListBytes(inputLayer.size()) + inputLayer.size() * INPUT_NEURON_BYTES;
+            long offHeapBytes = 0;
+            for (final WeightBuffer layerWeights : allWeights) {
+                heapBytes += WEIGHT_BUFFER_BYTES + DOUBLE_BUFFER_BYTES;
+                if (layerWeights.isDirect()) {
+                    offHeapBytes += (long) layerWeights.size() * Double.BYTES;
+                } else {
+                    heapBytes += MemoryOperations.arrayBytes(layerWeights.size(), Double.BYTES);
+                }
+            }
+            int numberOfPreviousNeurons = inputLayer.size();
+            for (int i = 0; i < neurons.size(); ++i) {
+                final int numberOfNeurons = neurons.get(i).size();
+                final long neuronBytes = i == neurons.size() - 1 ? OUTPUT_NEURON_BYTES
+                        : NEURON_BYTES + UNMODIFIABLE_LIST_BYTES;
+                heapBytes += MemoryOperations.arrayListBytes(numberOfNeurons) + numberOfNeurons * neuronBytes;
+                heapBytes += PREVIOUS_LAYER_BYTES + UNMODIFIABLE_LIST_BYTES
+                        + MemoryOperations.arrayListBytes(numberOfPreviousNeurons)
+                        + MemoryOperations.hashMapBytes(numberOfPreviousNeurons,
+                                PREVIOUS_LAYER_POSITIONS_CAPACITY_FACTOR * numberOfPreviousNeurons)
+                        + Math.max(0, numberOfPreviousNeurons - CACHED_INTEGERS) * BOXED_INTEGER_BYTES;
+                numberOfPreviousNeurons = numberOfNeurons;
+            }
+            long activationBytesPerSample = MemoryOperations.arrayBytes(getNumberOfInputs(), Double.BYTES)
+                    + MemoryOperations.arrayListBytes(outputLayer.size()) + outputLayer.size() * BOXED_DOUBLE_BYTES;
+            for (final SpatialLayer spatialLayer : spatialLayers) {
+                activationBytesPerSample += MemoryOperations.arrayBytes(spatialLayer.getOutputSize(), Double.BYTES);
+            }
+            for (final List<Neuron> neuralLayer : neurons) {
+                activationBytesPerSample += MemoryOperations.arrayBytes(neuralLayer.size(), Double.BYTES);
+            }
+            return new MemoryFootprint(allWeights.stream().mapToLong(WeightBuffer::size).toArray(), heapBytes,
+                    offHeapBytes, activationBytesPerSample);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Freezes given number of layers closest to network inputs. Weights of frozen
+     * layers are not adjusted during training and errors of their neurons are not
+     * calculated, so training cost depends only on layers which are not frozen.
+     * Useful for fine-tuning previously trained network. Spatial layers are
+     * trained only when no layers are frozen. Passing zero unfreezes all layers.
+     * Output layer can't be frozen, otherwise {@link IllegalArgumentException} is
+     * thrown.
+     *
+     * @param numberOfFrozenLayers number of hidden layers to freeze, counting from
+     *                             network inputs
+     */
+    public void freezeLayers(final int numberOfFrozenLayers) {
+        lock.writeLock().lock();
+        try {
+            if (numberOfFrozenLayers < 0 || numberOfFrozenLayers >= neurons.size()) {
+                throw new IllegalArgumentException(
+                        "Number of frozen layers has to be between 0 and number of hidden layers!");
+            }
+            this.numberOfFrozenLayers = numberOfFrozenLayers;
+            clearFrozenResponses();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Enables or disables caching responses of last frozen layer for each input
+     * vector. With caching enabled, frozen layers are calculated only once per
+     * input vector, e.g. once for each training sample across all training
+     * iterations. Cache grows with number of different input vectors, so it's
+     * disabled by default.
+     *
+     * @param cachingFrozenResponses whether responses of frozen layers should be
+     *                               cached
+     * @see NeuralNetwork#freezeLayers(int)
+     */
+    public void setCachingFrozenResponses(final boolean cachingFrozenResponses) {
+        lock.writeLock().lock();
+        try {
+            this.cachingFrozenResponses = cachingFrozenResponses;
+            clearFrozenResponses();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets profiler measuring time and number of floating point operations of
+     * calculating responses, propagating errors and adjusting weights of each
+     * layer. Passing null disables profiling, which is default.
+     *
+     * @param profiler profiler collecting measurements or null
+     * @see LayerProfiler
+     */
+    public void setProfiler(final LayerProfiler profiler) {
+        lock.writeLock().lock();
+        try {
+            this.profiler = profiler;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns profiler set using {@link NeuralNetwork#setProfiler(LayerProfiler)}.
+     *
+     * @return profiler or null if profiling is disabled.
+     */
+    public LayerProfiler getProfiler() {
+        lock.readLock().lock();
+        try {
+            return profiler;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int getNumberOfLayers() {
+        return neurons.size();
+    }
+
+    int getNumberOfFrozenLayers() {
+        return numberOfFrozenLayers;
+    }
+
+    boolean hasSpatialLayers() {
+        return !spatialLayers.isEmpty();
+    }
+
+    WeightBuffer getLayerWeights(final int layer) {
+        return weights.get(layer);
+    }
+
+    void checkWeightsWritable() {
+        if (weights.stream().anyMatch(WeightBuffer::isReadOnly)) {
+            throw new IllegalStateException("Weights mapped read-only can't be changed!");
+        }
+    }
+
+    Lock getExclusiveLock() {
+        return lock.writeLock();
+    }
+
+    void markWeightsChanged() {
+        clearFrozenResponses();
+        ++weightsVersion;
+    }
+
+    private void initializeSpatialLayers(final List<? extends SpatialLayer> spatialLayers) {
+        if (spatialLayers.isEmpty()) {
+            throw new IllegalArgumentException("At least one spatial layer is required!");
+        }
+        for (int i = 1; i < spatialLayers.size(); ++i) {
+            final SpatialLayer previousLayer = spatialLayers.get(i - 1);
+            final SpatialLayer layer = spatialLayers.get(i);
+            if (previousLayer.getOutputWidth() != layer.getInputWidth()
+                    || previousLayer.getOutputHeight() != layer.getInputHeight()
+                    || previousLayer.getOutputChannels() != layer.getInputChannels()) {
+                throw new IllegalArgumentException("Input of spatial layer doesn't match output of previous layer!");
+            }
+        }
+        this.spatialLayers.addAll(spatialLayers);
     }
 
     private void initializeInputLayer(final int numberOfInputs) {
@@ -99,46 +669,68 @@ public class NeuralNetwork implements Serializable {
         neurons.add(outputLayer.stream().map(Neuron.class::cast).collect(toList()));
     }
 
-    private void connectNeurons() {
-        connectInputToHiddenLayer();
-        connectHiddenAndOutputLayers();
-    }
-
-    private void connectInputToHiddenLayer() {
-        final List<Neuron> firstNeuralLayer = neurons.stream().findFirst().orElseThrow();
-        firstNeuralLayer.forEach(neuron -> neuron
-                .configurePreviousNeurons(inputLayer.stream().map(ResponseProvider.class::cast).collect(toList())));
+    private void connectSpatialLayers(final WeightInitialization weightInitialization,
+            final SplittableRandom random) {
+        for (final SpatialLayer spatialLayer : spatialLayers) {
+            final double[] weights = createLayerWeights(weightInitialization, random.split(), spatialLayer.getFanIn(),
+                    spatialLayer.getNumberOfWeightRows(), spatialLayer.getFanOut());
+            spatialLayer.configureWeights(weights);
+            spatialWeights.add(WeightBuffer.wrap(weights));
+        }
     }
 
-    private void connectHiddenAndOutputLayers() {
-        connectPreviousNeurons();
+    private void connectNeurons(final WeightInitialization weightInitialization, final SplittableRandom random) {
+        connectPreviousNeurons(weightInitialization, random);
         connectNextNeurons();
     }
 
-    private void connectPreviousNeurons() {
-        for (int i = 1; i < neurons.size(); ++i) {
-            final List<Neuron> neuralLayer = neurons.get(i);
-            final List<ResponseProvider> previousLayer = neurons.get(i - 1).stream().map(ResponseProvider.class::cast)
-                    .collect(toList());
-            neuralLayer.forEach(neuron -> neuron.configurePreviousNeurons(previousLayer));
+    private void connectPreviousNeurons(final WeightInitialization weightInitialization,
+            final SplittableRandom random) {
+        List<? extends ResponseProvider> previousNeurons = inputLayer;
+        for (final List<Neuron> neuralLayer : neurons) {
+            final PreviousLayer previousLayer = new PreviousLayer(previousNeurons);
+            final WeightBuffer weights = WeightBuffer.wrap(createLayerWeights(weightInitialization, random.split(),
+                    previousLayer.size(), neuralLayer.size(), neuralLayer.size()));
+            this.weights.add(weights);
+            final int rowLength = previousLayer.size() + 1;
+            for (int i = 0; i < neuralLayer.size(); ++i) {
+                neuralLayer.get(i).configurePreviousNeurons(previousLayer, weights, i * rowLength);
+            }
+            previousNeurons = neuralLayer;
         }
     }
 
     private void connectNextNeurons() {
         for (int i = neurons.size() - 2; i >= 0; --i) {
-            final List<Neuron> neuralLayer = neurons.get(i);
-            final List<Neuron> previousLayer = neurons.get(i + 1);
-            neuralLayer.forEach(neuron -> neuron.configureNextNeurons(previousLayer));
+            final List<Neuron> nextLayer = neurons.get(i + 1);
+            neurons.get(i).forEach(neuron -> neuron.configureNextNeurons(nextLayer));
         }
     }
 
     private void setInputLayerValues(final List<Double> inputs) {
-        if (inputLayer.size() != inputs.size()) {
+        if (getNumberOfInputs() != inputs.size()) {
             throw new IllegalArgumentException("Number of network inputs and passed number of inputs doesn't match!");
         }
-        for (int i = 0; i < inputLayer.size(); ++i) {
-            inputLayer.get(i).configureInput(inputs.get(i));
+        if (spatialLayers.isEmpty()) {
+            for (int i = 0; i < inputLayer.size(); ++i) {
+                inputLayer.get(i).configureInput(inputs.get(i));
+            }
+        } else {
+            spatialResponses = calculateSpatialResponses(inputs.stream().mapToDouble(Double::doubleValue).toArray());
+            final double[] responses = spatialResponses[spatialLayers.size()];
+            for (int i = 0; i < inputLayer.size(); ++i) {
+                inputLayer.get(i).configureInput(responses[i]);
+            }
+        }
+    }
+
+    private double[][] calculateSpatialResponses(final double[] inputs) {
+        final double[][] responses = new double[spatialLayers.size() + 1][];
+        responses[0] = inputs;
+        for (int i = 0; i < spatialLayers.size(); ++i) {
+            responses[i + 1] = spatialLayers.get(i).calculateResponses(responses[i]);
         }
+        return responses;
     }
 
     private void setExpectedResponses(final List<Double> expectedValues) {
@@ -150,15 +742,180 @@ public class NeuralNetwork implements Serializable {
         }
     }
 
+    private int calculateFrozenResponses(final List<Double> inputs) {
+        if (!cachingFrozenResponses || numberOfFrozenLayers == 0) {
+            return 0;
+        }
+        final List<Neuron> lastFrozenLayer = neurons.get(numberOfFrozenLayers - 1);
+        final double[] cachedResponses = frozenResponses.get(inputs);
+        if (cachedResponses != null) {
+            for (int i = 0; i < cachedResponses.length; ++i) {
+                lastFrozenLayer.get(i).configureResponse(cachedResponses[i]);
+            }
+        } else {
+            for (int i = 0; i < numberOfFrozenLayers; ++i) {
+                calculateLayerResponse(i);
+            }
+            frozenResponses.put(List.copyOf(inputs),
+                    lastFrozenLayer.stream().mapToDouble(Neuron::getResponse).toArray());
+        }
+        return numberOfFrozenLayers;
+    }
+
+    private void clearFrozenResponses() {
+        frozenResponses = cachingFrozenResponses ? new HashMap<>() : null;
+    }
+
     private void backpropagateErrorsAndAdjustWeights(final double learningRate) {
-        Collections.reverse(neurons);
-        neurons.forEach(neuralLayer -> neuralLayer.forEach(Neuron::calculateError));
-        neurons.forEach(neuralLayer -> neuralLayer.forEach(neuron -> neuron.adjustWeights(learningRate)));
-        Collections.reverse(neurons);
+        for (int i = neurons.size() - 1; i >= numberOfFrozenLayers; --i) {
+            final LayerProfiler.Measurement measurement = profiler == null ? null
+                    : profiler.start(i, LayerPhase.ERROR_PROPAGATION);
+            neurons.get(i).forEach(Neuron::calculateError);
+            if (measurement != null) {
+                measurement.stop(calculateErrorPropagationFlops(i));
+            }
+        }
+        final double[] inputLayerErrors = spatialLayers.isEmpty() || numberOfFrozenLayers > 0 ? null
+                : calculateInputLayerErrors();
+        for (int i = neurons.size() - 1; i >= numberOfFrozenLayers; --i) {
+            final LayerProfiler.Measurement measurement = profiler == null ? null
+                    : profiler.start(i, LayerPhase.WEIGHT_UPDATE);
+            neurons.get(i).forEach(neuron -> neuron.adjustWeights(learningRate));
+            if (measurement != null) {
+                measurement.stop(calculateWeightUpdateFlops(i));
+            }
+        }
+        if (inputLayerErrors != null) {
+            backpropagateSpatialLayers(inputLayerErrors, learningRate);
+        }
+    }
+
+    private double[] calculateInputLayerErrors() {
+        final List<Neuron> firstLayer = neurons.get(0);
+        final WeightBuffer firstLayerWeights = weights.get(0);
+        final int rowLength = inputLayer.size() + 1;
+        final double[] errors = new double[inputLayer.size()];
+        for (int neuron = 0; neuron < firstLayer.size(); ++neuron) {
+            final double error = firstLayer.get(neuron).getError();
+            final int offset = neuron * rowLength;
+            for (int i = 0; i < errors.length; ++i) {
+                errors[i] += firstLayerWeights.get(offset + i) * error;
+            }
+        }
+        return errors;
+    }
+
+    private void backpropagateSpatialLayers(final double[] inputLayerErrors, final double learningRate) {
+        double[] errors = inputLayerErrors;
+        for (int i = spatialLayers.size() - 1; i >= 0; --i) {
+            errors = spatialLayers.get(i).backpropagate(spatialResponses[i], spatialResponses[i + 1], errors,
+                    learningRate);
+        }
+    }
+
+    private Stream<WeightBuffer> streamAllWeights() {
+        return Stream.concat(spatialWeights.stream(), weights.stream());
+    }
+
+    private void replaceLayerWeights(final int layer, final WeightBuffer layerWeights) {
+        final List<Neuron> neuralLayer = neurons.get(layer);
+        final int rowLength = layerWeights.size() / neuralLayer.size();
+        for (int i = 0; i < neuralLayer.size(); ++i) {
+            neuralLayer.get(i).configureWeights(layerWeights, i * rowLength);
+        }
+        weights.set(layer, layerWeights);
+    }
+
+    private void calculateLayerResponse(final int layer) {
+        final LayerProfiler.Measurement measurement = profiler == null ? null
+                : profiler.start(layer, LayerPhase.FORWARD);
+        neurons.get(layer).forEach(Neuron::calculateResponse);
+        if (measurement != null) {
+            measurement.stop(calculateForwardFlops(layer));
+        }
+    }
+
+    private long calculateForwardFlops(final int layer) {
+        return 2L * weights.get(layer).size();
+    }
+
+    private long calculateErrorPropagationFlops(final int layer) {
+        if (layer == neurons.size() - 1) {
+            return neurons.get(layer).size();
+        }
+        final long numberOfNeurons = neurons.get(layer).size();
+        return 2L * numberOfNeurons * neurons.get(layer + 1).size() + 3L * numberOfNeurons;
+    }
+
+    private long calculateWeightUpdateFlops(final int layer) {
+        return 2L * weights.get(layer).size() + neurons.get(layer).size();
+    }
+
+    private void readObject(final ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+        objectInputStream.defaultReadObject();
+        lock = new ReentrantReadWriteLock();
+        clearFrozenResponses();
     }
 
     private static <T> List<T> createListOfObjects(final int numberOfElements, final Supplier<T> objectSupplier) {
-        return Stream.generate(objectSupplier).limit(numberOfElements).collect(toList());
+        final List<T> objects = new ArrayList<>(numberOfElements);
+        for (int i = 0; i < numberOfElements; ++i) {
+            objects.add(objectSupplier.get());
+        }
+        return objects;
+    }
+
+    private static int readInt(final FileChannel channel, final long position) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Weights file is too short!");
+            }
+        }
+        return buffer.getInt(0);
+    }
+
+    static double[][] calculateLayerResponses(final WeightBuffer weights, final int numberOfPreviousNeurons,
+            final double[][] previousResponses) {
+        final int rowLength = numberOfPreviousNeurons + 1;
+        final int numberOfNeurons = weights.size() / rowLength;
+        final double[][] responses = new double[previousResponses.length][numberOfNeurons];
+        for (int neuron = 0; neuron < numberOfNeurons; ++neuron) {
+            final int offset = neuron * rowLength;
+            for (int sample = 0; sample < previousResponses.length; ++sample) {
+                final double[] previousResponse = previousResponses[sample];
+                double response = weights.get(offset + numberOfPreviousNeurons);
+                for (int i = 0; i < numberOfPreviousNeurons; ++i) {
+                    response += weights.get(offset + i) * previousResponse[i];
+                }
+                responses[sample][neuron] = MathOperations.sigmoid(response);
+            }
+        }
+        return responses;
+    }
+
+    private static double[] createLayerWeights(final WeightInitialization weightInitialization,
+            final SplittableRandom random, final int numberOfPreviousNeurons, final int numberOfNeurons,
+            final int fanOut) {
+        final int rowLength = numberOfPreviousNeurons + 1;
+        if ((long) rowLength * numberOfNeurons > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Number of weights in single layer exceeds maximum array size!");
+        }
+        final double[] weights = new double[rowLength * numberOfNeurons];
+        final double weightBound = weightInitialization.weightBound(numberOfPreviousNeurons, fanOut);
+        final double biasBound = weightInitialization.biasBound();
+        final long[] seeds = random.longs(numberOfNeurons).toArray();
+        IntStream.range(0, numberOfNeurons).parallel().forEach(neuron -> {
+            final SplittableRandom neuronRandom = new SplittableRandom(seeds[neuron]);
+            final int offset = neuron * rowLength;
+            for (int i = offset; i < offset + numberOfPreviousNeurons; ++i) {
+                weights[i] = neuronRandom.nextDouble(-weightBound, weightBound);
+            }
+            weights[offset + numberOfPreviousNeurons] = biasBound > 0D
+                    ? neuronRandom.nextDouble(-biasBound, biasBound)
+                    : 0D;
+        });
+        return weights;
     }
 
 }
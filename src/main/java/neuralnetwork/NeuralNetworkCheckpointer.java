@@ -0,0 +1,209 @@
+package neuralnetwork;
+
+import neuralnetwork.helpers.WeightOperations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Writer of periodic training checkpoints used by {@link NeuralNetworkTrainer}.
+ * <br>
+ * <br>
+ * Checkpoint is taken every specified number of iterations or after specified
+ * time since previous checkpoint, whichever comes first. Weights are copied
+ * between iterations and written to file on background thread, so training
+ * continues while checkpoint is written. Each file is written under temporary
+ * name, forced to storage device and atomically renamed, and only specified
+ * number of most recent checkpoints is kept. If writing is slower than
+ * training, pending checkpoint is replaced by newer one. Failure of writing
+ * checkpoint is rethrown when next checkpoint is due or when checkpointer is
+ * closed.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetworkTrainer#setCheckpointer(NeuralNetworkCheckpointer)
+ * @see NeuralNetworkTrainer#resumeFromCheckpoint(Path)
+ */
+public class NeuralNetworkCheckpointer implements Closeable {
+
+    private static final int MAGIC_NUMBER = 0x4E4E4350;
+    private static final int FORMAT_VERSION = 1;
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".bin";
+    private final Path directory;
+    private final int iterationsInterval;
+    private final long timeIntervalNanos;
+    private final int retainedCheckpoints;
+    private final ThreadPoolExecutor executor;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private long lastCheckpointNanos = System.nanoTime();
+
+    /**
+     * Constructor.
+     *
+     * @param directory           directory to write checkpoints to, created if
+     *                            it doesn't exist.
+     * @param iterationsInterval  number of iterations between checkpoints, zero
+     *                            to checkpoint only based on time.
+     * @param timeInterval        time between checkpoints, zero to checkpoint only
+     *                            based on iterations.
+     * @param retainedCheckpoints number of most recent checkpoints to keep.
+     * @throws IOException I/O error occurred when creating directory.
+     */
+    public NeuralNetworkCheckpointer(final Path directory, final int iterationsInterval, final Duration timeInterval,
+            final int retainedCheckpoints) throws IOException {
+        if (iterationsInterval < 0 || timeInterval.isNegative() || retainedCheckpoints < 1) {
+            throw new IllegalArgumentException(
+                    "Intervals can't be negative and at least one checkpoint has to be kept!");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.iterationsInterval = iterationsInterval;
+        this.timeIntervalNanos = timeInterval.toNanos();
+        this.retainedCheckpoints = retainedCheckpoints;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "neural-network-checkpointer");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    /**
+     * Finds most recent checkpoint in given directory.
+     *
+     * @param directory directory with checkpoints.
+     * @return path to most recent checkpoint, empty if there are no checkpoints.
+     * @throws IOException I/O error occurred when listing directory.
+     */
+    public static Optional<Path> findLatestCheckpoint(final Path directory) throws IOException {
+        final List<Path> checkpoints = listCheckpoints(directory);
+        return checkpoints.isEmpty() ? Optional.empty() : Optional.of(checkpoints.get(checkpoints.size() - 1));
+    }
+
+    /**
+     * Waits until pending checkpoint is written and stops background thread.
+     *
+     * @throws IOException I/O error occurred when writing checkpoint, which
+     *                     wasn't rethrown yet.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        final IOException exception = failure.getAndSet(null);
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    void checkpointIfDue(final int iteration, final Supplier<Checkpoint> checkpointSupplier) {
+        final IOException exception = failure.getAndSet(null);
+        if (exception != null) {
+            throw new UncheckedIOException(exception);
+        }
+        final long now = System.nanoTime();
+        final boolean iterationsElapsed = iterationsInterval > 0 && iteration % iterationsInterval == 0;
+        final boolean timeElapsed = timeIntervalNanos > 0 && now - lastCheckpointNanos >= timeIntervalNanos;
+        if (iterationsElapsed || timeElapsed) {
+            lastCheckpointNanos = now;
+            final Checkpoint checkpoint = checkpointSupplier.get();
+            executor.execute(() -> write(checkpoint));
+        }
+    }
+
+    private void write(final Checkpoint checkpoint) {
+        final Path target = directory
+                .resolve(String.format("%s%010d%s", CHECKPOINT_PREFIX, checkpoint.iteration, CHECKPOINT_SUFFIX));
+        final Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                    DataOutputStream output = new DataOutputStream(
+                            new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+                checkpoint.write(output);
+                output.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            final List<Path> checkpoints = listCheckpoints(directory);
+            for (final Path oldCheckpoint : checkpoints.subList(0,
+                    Math.max(0, checkpoints.size() - retainedCheckpoints))) {
+                Files.deleteIfExists(oldCheckpoint);
+            }
+        } catch (final IOException exception) {
+            failure.set(exception);
+        }
+    }
+
+    private static List<Path> listCheckpoints(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(CHECKPOINT_PREFIX)
+                    && file.getFileName().toString().endsWith(CHECKPOINT_SUFFIX)).sorted().collect(toList());
+        }
+    }
+
+    /**
+     * Training state stored in checkpoint.
+     */
+    static class Checkpoint {
+
+        final int iteration;
+        final double learningRate;
+        final long shuffleSeed;
+        final double[][] weights;
+
+        Checkpoint(final int iteration, final double learningRate, final long shuffleSeed,
+                final double[][] weights) {
+            this.iteration = iteration;
+            this.learningRate = learningRate;
+            this.shuffleSeed = shuffleSeed;
+            this.weights = weights;
+        }
+
+        static Checkpoint read(final Path file) throws IOException {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (input.readInt() != MAGIC_NUMBER || input.readInt() != FORMAT_VERSION) {
+                    throw new IOException("File " + file + " is not a supported checkpoint!");
+                }
+                return new Checkpoint(input.readInt(), input.readDouble(), input.readLong(),
+                        WeightOperations.readWeights(input));
+            }
+        }
+
+        void write(final DataOutputStream output) throws IOException {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(iteration);
+            output.writeDouble(learningRate);
+            output.writeLong(shuffleSeed);
+            WeightOperations.writeWeights(output, weights);
+        }
+
+    }
+
+}
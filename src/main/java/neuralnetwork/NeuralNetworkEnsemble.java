@@ -0,0 +1,161 @@
+package neuralnetwork;
+
+import neuralnetwork.helpers.ListOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Ensemble of independently trained Neural Networks. <br>
+ * <br>
+ * Members are trained concurrently, optionally each on its own bootstrap
+ * sample of training data (bagging). Responses of members are calculated
+ * concurrently and combined either by averaging them or by voting. Ensemble can
+ * be tested using {@link NeuralNetworkTrainer#test(ResponseCalculator)}.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetwork
+ */
+public class NeuralNetworkEnsemble implements ResponseCalculator {
+
+    /**
+     * Method of combining responses of ensemble members.
+     */
+    public enum Combination {
+
+        /**
+         * Each output is average of corresponding outputs of all members.
+         */
+        AVERAGE,
+
+        /**
+         * Each member votes for its output with the highest response. Each output
+         * is ratio of members which voted for it.
+         */
+        VOTE
+
+    }
+
+    private final List<NeuralNetwork> members;
+    private final Combination combination;
+
+    /**
+     * Constructor.
+     *
+     * @param members     Neural Networks with the same number of inputs and
+     *                    outputs, otherwise {@link IllegalArgumentException} is
+     *                    thrown.
+     * @param combination method of combining responses of members.
+     */
+    public NeuralNetworkEnsemble(final List<NeuralNetwork> members, final Combination combination) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Ensemble has to have at least one member!");
+        }
+        final NeuralNetwork firstMember = members.get(0);
+        if (members.stream().anyMatch(member -> member.getNumberOfInputs() != firstMember.getNumberOfInputs()
+                || member.getNumberOfOutputs() != firstMember.getNumberOfOutputs())) {
+            throw new IllegalArgumentException("All ensemble members have to have the same inputs and outputs!");
+        }
+        this.members = List.copyOf(members);
+        this.combination = combination;
+    }
+
+    /**
+     * Trains all members concurrently for specified number of iterations. With
+     * bagging enabled, each member is trained on its own sample of training map
+     * drawn with replacement, of the same size as training map.
+     *
+     * @param trainingMap        map containing input vectors and expected values
+     *                           used for training.
+     * @param numberOfIterations number of training iterations.
+     * @param learningRate       learning rate used in training.
+     * @param bagging            whether members should be trained on bootstrap
+     *                           samples instead of entire training map.
+     * @param seed               seed used for bootstrap samples and shuffling.
+     * @return list of root mean square errors (RMSE) of last iteration of each
+     *         member.
+     */
+    public List<Double> train(final Map<List<Double>, List<Double>> trainingMap, final int numberOfIterations,
+            final double learningRate, final boolean bagging, final long seed) {
+        final List<List<Double>> inputs = new ArrayList<>(trainingMap.keySet());
+        final SplittableRandom random = new SplittableRandom(seed);
+        final long[] memberSeeds = random.longs(members.size()).toArray();
+        final double[] rmses = new double[members.size()];
+        ListOperations.runNeuralOperationConcurrently(IntStream.range(0, members.size()).boxed().collect(toList()),
+                member -> {
+                    final Random memberRandom = new Random(memberSeeds[member]);
+                    final List<List<Double>> memberInputs = bagging ? bootstrapSample(inputs, memberRandom)
+                            : new ArrayList<>(inputs);
+                    for (int i = 0; i < numberOfIterations; ++i) {
+                        rmses[member] = NeuralNetworkTrainer.trainIteration(members.get(member), trainingMap,
+                                memberInputs, learningRate);
+                        Collections.shuffle(memberInputs, memberRandom);
+                    }
+                });
+        return IntStream.range(0, rmses.length).mapToObj(member -> rmses[member]).collect(toList());
+    }
+
+    /**
+     * Calculates responses of all members concurrently and combines them.
+     *
+     * @param inputs list consisting of input values as doubles (input vector)
+     * @return list consisting of combined responses of members (output vector)
+     */
+    @Override
+    public List<Double> calculateResponse(final List<Double> inputs) {
+        return combine(members.parallelStream().map(member -> member.calculateResponse(inputs)).collect(toList()));
+    }
+
+    /**
+     * Calculates responses of all members for batch of inputs concurrently and
+     * combines them.
+     *
+     * @param inputs list of input vectors
+     * @return list of combined output vectors, in order of input vectors
+     * @see NeuralNetwork#calculateResponses(List)
+     */
+    public List<List<Double>> calculateResponses(final List<List<Double>> inputs) {
+        final List<List<List<Double>>> memberResponses = members.parallelStream()
+                .map(member -> member.calculateResponses(inputs)).collect(toList());
+        return IntStream.range(0, inputs.size()).mapToObj(
+                sample -> combine(memberResponses.stream().map(responses -> responses.get(sample)).collect(toList())))
+                .collect(toList());
+    }
+
+    /**
+     * Getter for ensemble members.
+     *
+     * @return unmodifiable list of members.
+     */
+    public List<NeuralNetwork> getMembers() {
+        return members;
+    }
+
+    private List<Double> combine(final List<List<Double>> responses) {
+        final double[] combinedResponse = new double[responses.get(0).size()];
+        for (final List<Double> response : responses) {
+            if (combination == Combination.AVERAGE) {
+                for (int i = 0; i < combinedResponse.length; ++i) {
+                    combinedResponse[i] += response.get(i);
+                }
+            } else {
+                ++combinedResponse[response.indexOf(Collections.max(response))];
+            }
+        }
+        return IntStream.range(0, combinedResponse.length).mapToObj(i -> combinedResponse[i] / responses.size())
+                .collect(toList());
+    }
+
+    private static List<List<Double>> bootstrapSample(final List<List<Double>> inputs, final Random random) {
+        return IntStream.range(0, inputs.size()).mapToObj(i -> inputs.get(random.nextInt(inputs.size())))
+                .collect(toList());
+    }
+
+}
@@ -3,6 +3,7 @@ package neuralnetwork;
 import neuralnetwork.helpers.*;
 
 import java.io.*;
+import java.nio.file.Path;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -10,6 +11,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -31,6 +35,13 @@ public class NeuralNetworkTrainer implements Serializable {
     private NeuralNetwork savedNeuralNetwork;
     private int numberOfIterations;
     private double learningRate;
+    private long shuffleSeed = ThreadLocalRandom.current().nextLong();
+    private int resumedIterations = 0;
+    private boolean verbose = true;
+    private transient NeuralNetworkCheckpointer checkpointer;
+    private transient EarlyStopping earlyStopping;
+    private transient IntConsumer iterationListener;
+    private transient boolean stoppedEarly = false;
 
     /**
      * Constructor. Saves all relevant information required for network testing.
@@ -68,6 +79,22 @@ public class NeuralNetworkTrainer implements Serializable {
         objectInputStream.close();
     }
 
+    /**
+     * Returns report of memory used by Neural Network together with training and
+     * testing maps and copy of network kept for restoring it.
+     *
+     * @return memory footprint of network and data held by trainer.
+     * @see NeuralNetwork#getMemoryFootprint()
+     */
+    public MemoryFootprint getMemoryFootprint() {
+        final long datasetHeapBytes = MemoryOperations.datasetHeapBytes(trainingMap)
+                + MemoryOperations.datasetHeapBytes(testingMap) + MemoryOperations.arrayListBytes(trainingMap.size());
+        final long datasetRawBytes = MemoryOperations.datasetRawBytes(trainingMap)
+                + MemoryOperations.datasetRawBytes(testingMap);
+        return neuralNetwork.getMemoryFootprint().withTrainerData(datasetHeapBytes, datasetRawBytes,
+                savedNeuralNetwork.getMemoryFootprint().getHeapBytes());
+    }
+
     /**
      * Method saving used Neural Network to file with provided filename.
      *
@@ -99,6 +126,86 @@ public class NeuralNetworkTrainer implements Serializable {
         this.learningRate = learningRate;
     }
 
+    /**
+     * Setter for printing progress of training. Progress is printed by default.
+     *
+     * @param verbose whether iteration number, RMSE and accuracy should be
+     *                printed to standard output during training.
+     */
+    public void setVerbose(final boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Setter for seed of random number generator used for shuffling training
+     * samples between iterations. Training the same network with the same seed
+     * and training map uses samples in the same order.
+     *
+     * @param shuffleSeed seed used for shuffling training samples.
+     */
+    public void setShuffleSeed(final long shuffleSeed) {
+        this.shuffleSeed = shuffleSeed;
+    }
+
+    /**
+     * Setter for checkpointer periodically saving training state during
+     * training. Checkpointer should be closed after training to make sure last
+     * checkpoint is written. If writing checkpoint fails,
+     * {@link java.io.UncheckedIOException} is thrown from training when next
+     * checkpoint is due.
+     *
+     * @param checkpointer checkpointer to use, null to disable checkpoints.
+     * @see NeuralNetworkTrainer#resumeFromCheckpoint(Path)
+     */
+    public void setCheckpointer(final NeuralNetworkCheckpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Setter for early stopping. When set, training stops once monitored metric
+     * stops improving and weights from the best iteration are restored after
+     * training. Metric is calculated on testing map, so it can't be empty.
+     *
+     * @param earlyStopping early stopping configuration, null to always train for
+     *                      all iterations.
+     */
+    public void setEarlyStopping(final EarlyStopping earlyStopping) {
+        if (earlyStopping != null && testingMap.isEmpty()) {
+            throw new IllegalArgumentException("Early stopping requires non-empty testing map!");
+        }
+        this.earlyStopping = earlyStopping;
+    }
+
+    /**
+     * Setter for listener called after each training iteration with number of
+     * that iteration, e.g. for exchanging weights with other processes.
+     *
+     * @param iterationListener listener to call, null to disable.
+     */
+    public void setIterationListener(final IntConsumer iterationListener) {
+        this.iterationListener = iterationListener;
+    }
+
+    /**
+     * Restores training state from checkpoint - weights of Neural Network,
+     * learning rate, number of completed iterations and state of samples
+     * shuffling. Next training continues from first iteration which wasn't
+     * completed, so it produces the same result as uninterrupted training.
+     * Network has to have the same topology and training map has to be the same as
+     * in interrupted training.
+     *
+     * @param checkpoint path to checkpoint file.
+     * @throws IOException I/O error occurred when reading checkpoint.
+     * @see NeuralNetworkCheckpointer#findLatestCheckpoint(Path)
+     */
+    public void resumeFromCheckpoint(final Path checkpoint) throws IOException {
+        final NeuralNetworkCheckpointer.Checkpoint state = NeuralNetworkCheckpointer.Checkpoint.read(checkpoint);
+        neuralNetwork.importWeights(state.weights);
+        learningRate = state.learningRate;
+        shuffleSeed = state.shuffleSeed;
+        resumedIterations = state.iteration;
+    }
+
     /**
      * Method testing Neural Network on provided testing map.
      *
@@ -106,8 +213,20 @@ public class NeuralNetworkTrainer implements Serializable {
      *         with expected values as values
      */
     public List<Entry<List<Double>, Integer>> test() {
+        return test(neuralNetwork);
+    }
+
+    /**
+     * Method testing provided response calculator, e.g. ensemble of networks, on
+     * provided testing map.
+     *
+     * @param responseCalculator response calculator to test
+     * @return list of entries containing incorrectly classifying responses as keyes
+     *         with expected values as values
+     */
+    public List<Entry<List<Double>, Integer>> test(final ResponseCalculator responseCalculator) {
         return testingMap.entrySet().stream().map(entry -> {
-            final List<Double> calculatedResponse = neuralNetwork.calculateResponse(entry.getKey());
+            final List<Double> calculatedResponse = responseCalculator.calculateResponse(entry.getKey());
             final int calculatedValue = valueFromVector(calculatedResponse);
             final int expectedValue = valueFromVector(entry.getValue());
             if (calculatedValue == expectedValue) {
@@ -118,6 +237,22 @@ public class NeuralNetworkTrainer implements Serializable {
         }).filter(Objects::nonNull).collect(toList());
     }
 
+    /**
+     * Calculates ratio of samples from provided testing map correctly classified
+     * by provided response calculator.
+     *
+     * @param responseCalculator response calculator to test
+     * @return accuracy as ratio of correctly classified samples.
+     * @throws IllegalStateException testing map is empty.
+     * @see NeuralNetworkTrainer#test(ResponseCalculator)
+     */
+    public double calculateAccuracy(final ResponseCalculator responseCalculator) {
+        if (testingMap.isEmpty()) {
+            throw new IllegalStateException("Accuracy can't be calculated on empty testing map!");
+        }
+        return (testingMapSize() - test(responseCalculator).size()) / (double) testingMapSize();
+    }
+
     /**
      * Method used for training provided Neural Network for specified number of
      * iterations with specified learning rate. Uses provided training map.
@@ -125,7 +260,10 @@ public class NeuralNetworkTrainer implements Serializable {
      * @return list of root mean square errors (RMSE) from all iterations.
      */
     public List<Double> train() {
-        return trainAndReturnRmseStream().peek(rmse -> System.out.println()).collect(toList());
+        final List<Double> rmses = trainAndReturnRmseStream(false).peek(rmse -> print(String.format("%n")))
+                .collect(toList());
+        restoreBestWeights();
+        return rmses;
     }
 
     /**
@@ -135,19 +273,83 @@ public class NeuralNetworkTrainer implements Serializable {
      * accuracy per learning iteration.
      */
     public void trainAndTestOnEachIteration() {
-        trainAndReturnRmseStream().forEach(i -> System.out.println(
-                String.format("\t\tACCURACY=%.5f", (testingMapSize() - test().size()) / (double) testingMapSize())));
+        trainAndReturnRmseStream(true).forEach(rmse -> print(String.format("%n")));
+        restoreBestWeights();
     }
 
-    private Stream<Double> trainAndReturnRmseStream() {
+    private Stream<Double> trainAndReturnRmseStream(final boolean testOnEachIteration) {
         final List<List<Double>> inputs = new ArrayList<>(trainingMap.keySet());
-        return IntStream.rangeClosed(1, numberOfIterations)
-                .peek(i -> System.out.print(String.format("ITERATION=%d\t\tLEARNING-RATE=%f", i, learningRate)))
-                .mapToObj(i -> inputs.stream()
-                        .mapToDouble(input -> neuralNetwork.train(input, trainingMap.get(input), learningRate).stream()
-                                .mapToDouble(MathOperations::squareValue).sum())
-                        .sum() / 2D)
-                .peek(i -> shuffle(inputs)).peek(rmse -> System.out.print(String.format("\t\tRMSE=%.3f", rmse)));
+        final Random shuffleRandom = new Random(shuffleSeed);
+        final int firstIteration = resumedIterations + 1;
+        resumedIterations = 0;
+        IntStream.range(1, firstIteration).forEach(i -> shuffle(inputs, shuffleRandom));
+        stoppedEarly = false;
+        if (earlyStopping != null) {
+            earlyStopping.reset();
+        }
+        return IntStream.rangeClosed(firstIteration, numberOfIterations).takeWhile(i -> !stoppedEarly)
+                .peek(i -> print(String.format("ITERATION=%d\t\tLEARNING-RATE=%f", i, learningRate)))
+                .mapToObj(i -> {
+                    final double rmse = trainIteration(neuralNetwork, trainingMap, inputs, learningRate);
+                    shuffle(inputs, shuffleRandom);
+                    checkpointIfDue(i);
+                    if (iterationListener != null) {
+                        iterationListener.accept(i);
+                    }
+                    print(String.format("\t\tRMSE=%.3f", rmse));
+                    final boolean monitoringAccuracy = earlyStopping != null
+                            && earlyStopping.getMetric() == EarlyStopping.Metric.ACCURACY;
+                    final double accuracy = testOnEachIteration || monitoringAccuracy ? calculateAccuracy()
+                            : Double.NaN;
+                    if (testOnEachIteration) {
+                        print(String.format("\t\tACCURACY=%.5f", accuracy));
+                    }
+                    if (earlyStopping != null) {
+                        final double metricValue = monitoringAccuracy ? accuracy : calculateTestingRmse();
+                        stoppedEarly = !earlyStopping.update(i, metricValue, neuralNetwork);
+                    }
+                    return rmse;
+                });
+    }
+
+    static double trainIteration(final NeuralNetwork neuralNetwork,
+            final Map<List<Double>, List<Double>> trainingMap, final List<List<Double>> inputs,
+            final double learningRate) {
+        return inputs.stream()
+                .mapToDouble(input -> neuralNetwork.train(input, trainingMap.get(input), learningRate).stream()
+                        .mapToDouble(MathOperations::squareValue).sum())
+                .sum() / 2D;
+    }
+
+    private void print(final String text) {
+        if (verbose) {
+            System.out.print(text);
+        }
+    }
+
+    private double calculateAccuracy() {
+        return calculateAccuracy(neuralNetwork);
+    }
+
+    private double calculateTestingRmse() {
+        return testingMap.entrySet().stream().mapToDouble(entry -> {
+            final List<Double> response = neuralNetwork.calculateResponse(entry.getKey());
+            return IntStream.range(0, response.size())
+                    .mapToDouble(i -> MathOperations.squareValue(entry.getValue().get(i) - response.get(i))).sum();
+        }).sum() / 2D;
+    }
+
+    private void restoreBestWeights() {
+        if (earlyStopping != null) {
+            earlyStopping.restoreBestWeights(neuralNetwork);
+        }
+    }
+
+    private void checkpointIfDue(final int iteration) {
+        if (checkpointer != null) {
+            checkpointer.checkpointIfDue(iteration, () -> new NeuralNetworkCheckpointer.Checkpoint(iteration,
+                    learningRate, shuffleSeed, neuralNetwork.exportWeights()));
+        }
     }
 
     /**
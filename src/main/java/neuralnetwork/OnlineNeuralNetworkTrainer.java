@@ -0,0 +1,300 @@
+package neuralnetwork;
+
+import neuralnetwork.helpers.MathOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Helper class for training Neural Network on unbounded stream of samples. <br>
+ * <br>
+ * Each sample is used for training once, as soon as it is received, so memory
+ * usage doesn't depend on number of samples. Loss is averaged over rolling
+ * window of most recent samples and reported periodically. Weights can be
+ * periodically published to other networks, e.g. used for inference, without
+ * stopping training. Listeners receive published weights asynchronously, in
+ * order of publishing, so slow listeners don't block training. At most one
+ * copy of weights waits for listeners - weights published while listeners are
+ * busy replace weights which weren't delivered yet.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetwork
+ * @see NeuralNetworkTrainer
+ */
+public class OnlineNeuralNetworkTrainer {
+
+    private final NeuralNetwork neuralNetwork;
+    private final double[] lossWindow;
+    private final List<Consumer<double[][]>> weightsListeners = new ArrayList<>();
+    private double learningRate;
+    private double lossWindowSum = 0D;
+    private long numberOfSamples = 0;
+    private int lossReportingInterval = 0;
+    private Consumer<Double> lossListener = loss -> {
+    };
+    private int weightsPublishingInterval = 0;
+    private Executor weightsPublishingExecutor = ForkJoinPool.commonPool();
+    private final AtomicReference<double[][]> pendingWeights = new AtomicReference<>();
+    private CompletableFuture<Void> weightsPublication = CompletableFuture.completedFuture(null);
+
+    /**
+     * Constructor.
+     *
+     * @param neuralNetwork  Neural Network to train.
+     * @param learningRate   learning rate used in training.
+     * @param lossWindowSize number of most recent samples used to calculate
+     *                       rolling loss.
+     */
+    public OnlineNeuralNetworkTrainer(final NeuralNetwork neuralNetwork, final double learningRate,
+            final int lossWindowSize) {
+        if (lossWindowSize < 1) {
+            throw new IllegalArgumentException("Loss window size has to be positive!");
+        }
+        this.neuralNetwork = neuralNetwork;
+        this.learningRate = learningRate;
+        this.lossWindow = new double[lossWindowSize];
+    }
+
+    /**
+     * Setter for learning rate.
+     *
+     * @param learningRate learning rate to use in training.
+     */
+    public void setLearningRate(final double learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * Configures periodic reporting of rolling loss.
+     *
+     * @param lossReportingInterval number of samples between reports, zero to
+     *                              disable reporting.
+     * @param lossListener          consumer receiving rolling loss.
+     */
+    public void setLossReporting(final int lossReportingInterval, final Consumer<Double> lossListener) {
+        this.lossReportingInterval = lossReportingInterval;
+        this.lossListener = lossListener;
+    }
+
+    /**
+     * Configures how often weights are published to listeners.
+     *
+     * @param weightsPublishingInterval number of samples between publishing
+     *                                  weights, zero to disable publishing.
+     * @see OnlineNeuralNetworkTrainer#addWeightsListener(Consumer)
+     */
+    public void setWeightsPublishing(final int weightsPublishingInterval) {
+        this.weightsPublishingInterval = weightsPublishingInterval;
+    }
+
+    /**
+     * Setter for executor delivering published weights to listeners.
+     *
+     * @param weightsPublishingExecutor executor running listeners, common
+     *                                  fork-join pool by default.
+     */
+    public void setWeightsPublishingExecutor(final Executor weightsPublishingExecutor) {
+        this.weightsPublishingExecutor = weightsPublishingExecutor;
+    }
+
+    /**
+     * Adds listener receiving copy of weights each time they are published.
+     *
+     * @param weightsListener consumer receiving weights in form returned by
+     *                        {@link NeuralNetwork#exportWeights()}.
+     */
+    public synchronized void addWeightsListener(final Consumer<double[][]> weightsListener) {
+        weightsListeners.add(weightsListener);
+    }
+
+    /**
+     * Publishes weights to given network each time they are published. Network
+     * has to have the same topology as trained network and can be used by other
+     * threads during training.
+     *
+     * @param liveNeuralNetwork Neural Network receiving weights.
+     */
+    public void publishTo(final NeuralNetwork liveNeuralNetwork) {
+        addWeightsListener(liveNeuralNetwork::importWeights);
+    }
+
+    /**
+     * Trains the network on each sample returned by iterator, until iterator has
+     * no more samples.
+     *
+     * @param samples iterator of entries containing input vectors as keys and
+     *                expected values as values.
+     * @return number of samples used for training.
+     */
+    public long train(final Iterator<? extends Entry<List<Double>, List<Double>>> samples) {
+        long numberOfTrainedSamples = 0;
+        while (samples.hasNext()) {
+            train(samples.next());
+            ++numberOfTrainedSamples;
+        }
+        return numberOfTrainedSamples;
+    }
+
+    /**
+     * Trains the network on each sample of the stream, until stream ends.
+     *
+     * @param samples stream of entries containing input vectors as keys and
+     *                expected values as values.
+     * @return number of samples used for training.
+     */
+    public long train(final Stream<? extends Entry<List<Double>, List<Double>>> samples) {
+        return train(samples.iterator());
+    }
+
+    /**
+     * Subscribes to publisher of samples and trains the network on each received
+     * sample. Samples are requested in batches of given size, so publisher is
+     * never ahead of training by more than that number of samples.
+     *
+     * @param samples     publisher of entries containing input vectors as keys
+     *                    and expected values as values.
+     * @param requestSize number of samples requested at once.
+     * @return future completed with number of samples used for training when
+     *         publisher completes.
+     */
+    public CompletableFuture<Long> train(final Flow.Publisher<? extends Entry<List<Double>, List<Double>>> samples,
+            final int requestSize) {
+        if (requestSize < 1) {
+            throw new IllegalArgumentException("Request size has to be positive!");
+        }
+        final CompletableFuture<Long> result = new CompletableFuture<>();
+        samples.subscribe(new Flow.Subscriber<Entry<List<Double>, List<Double>>>() {
+            private Flow.Subscription subscription;
+            private long numberOfTrainedSamples = 0;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(requestSize);
+            }
+
+            @Override
+            public void onNext(final Entry<List<Double>, List<Double>> sample) {
+                try {
+                    train(sample);
+                } catch (final RuntimeException exception) {
+                    subscription.cancel();
+                    result.completeExceptionally(exception);
+                    return;
+                }
+                if (++numberOfTrainedSamples % requestSize == 0) {
+                    subscription.request(requestSize);
+                }
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                result.complete(numberOfTrainedSamples);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns loss averaged over rolling window of most recent samples. Loss of
+     * single sample is half of sum of squared errors of output neurons.
+     *
+     * @return rolling loss.
+     */
+    public synchronized double getRollingLoss() {
+        final long numberOfSamplesInWindow = Math.min(numberOfSamples, lossWindow.length);
+        return numberOfSamplesInWindow == 0 ? 0D : lossWindowSum / numberOfSamplesInWindow;
+    }
+
+    /**
+     * Returns number of samples used for training so far.
+     *
+     * @return number of samples used for training.
+     */
+    public synchronized long getNumberOfSamples() {
+        return numberOfSamples;
+    }
+
+    /**
+     * Copies current weights and hands them off to listeners, which receive them
+     * asynchronously after previously published weights. If previously published
+     * weights still wait for listeners, they are replaced, so listeners receive
+     * only the newest ones.
+     *
+     * @return future completed when all listeners received the weights or newer
+     *         ones.
+     */
+    public synchronized CompletableFuture<Void> publishWeights() {
+        if (pendingWeights.getAndSet(neuralNetwork.exportWeights()) == null) {
+            weightsPublication = weightsPublication.handle((result, throwable) -> null)
+                    .thenRunAsync(this::deliverPendingWeights, weightsPublishingExecutor);
+        }
+        return weightsPublication;
+    }
+
+    /**
+     * Returns future completed when all weights published so far were received
+     * by listeners, e.g. to wait for them after training ends.
+     *
+     * @return future of most recent publishing of weights.
+     */
+    public synchronized CompletableFuture<Void> getWeightsPublication() {
+        return weightsPublication;
+    }
+
+    private void deliverPendingWeights() {
+        final double[][] weights = pendingWeights.getAndSet(null);
+        final List<Consumer<double[][]>> listeners;
+        synchronized (this) {
+            listeners = List.copyOf(weightsListeners);
+        }
+        listeners.forEach(listener -> listener.accept(weights));
+    }
+
+    /**
+     * Getter for trained Neural Network.
+     *
+     * @return trained Neural Network.
+     */
+    public NeuralNetwork getNeuralNetwork() {
+        return neuralNetwork;
+    }
+
+    private void train(final Entry<List<Double>, List<Double>> sample) {
+        final double loss = neuralNetwork.train(sample.getKey(), sample.getValue(), learningRate).stream()
+                .mapToDouble(MathOperations::squareValue).sum() / 2D;
+        final long numberOfSamples = recordLoss(loss);
+        if (lossReportingInterval > 0 && numberOfSamples % lossReportingInterval == 0) {
+            lossListener.accept(getRollingLoss());
+        }
+        if (weightsPublishingInterval > 0 && numberOfSamples % weightsPublishingInterval == 0) {
+            publishWeights();
+        }
+    }
+
+    private synchronized long recordLoss(final double loss) {
+        final int index = (int) (numberOfSamples % lossWindow.length);
+        lossWindowSum += loss - lossWindow[index];
+        lossWindow[index] = loss;
+        if (index == lossWindow.length - 1) {
+            lossWindowSum = Arrays.stream(lossWindow).sum();
+        }
+        return ++numberOfSamples;
+    }
+
+}
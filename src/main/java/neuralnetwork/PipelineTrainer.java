@@ -0,0 +1,379 @@
+package neuralnetwork;
+
+import neuralnetwork.neuron.WeightBuffer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Helper class for training deep Neural Network with its layers split between
+ * multiple threads (pipeline parallelism). <br>
+ * <br>
+ * Layers are divided into stages of contiguous layers with similar number of
+ * weights, each stage owned by its own thread. Training samples are grouped
+ * into micro-batches which flow forward through stages, while errors flow
+ * backward, both through bounded queues. Each stage alternates between
+ * calculating responses for next micro-batch and propagating errors of earlier
+ * one, so all stages are busy once pipeline is filled. Weights are not copied
+ * - each stage adjusts weights of its own layers in place, once per
+ * micro-batch, by sum of adjustments {@link NeuralNetwork#train(List, List,
+ * double)} would make for each sample. Stage calculates responses for next
+ * micro-batches before errors of earlier ones come back, so responses and
+ * errors of single micro-batch can be calculated using different weights and
+ * results differ slightly from training sample by sample. Only single stage
+ * with micro-batches of one sample matches it exactly. Order of operations in
+ * each stage is fixed, so training can be repeated. <br>
+ * <br>
+ * Network is locked for the whole training. Networks with spatial layers are
+ * not supported. Frozen layers are not adjusted.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetwork
+ * @see NeuralNetworkTrainer
+ */
+public class PipelineTrainer {
+
+    private final NeuralNetwork neuralNetwork;
+    private final int[] stageBoundaries;
+    private final int[] layerSizes;
+    private int microBatchSize = 8;
+    private long shuffleSeed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * Constructor. Number of stages has to be between one and number of layers
+     * of network, including output layer, otherwise
+     * {@link IllegalArgumentException} is thrown.
+     *
+     * @param neuralNetwork  Neural Network to train.
+     * @param numberOfStages number of stages, each trained by separate thread.
+     */
+    public PipelineTrainer(final NeuralNetwork neuralNetwork, final int numberOfStages) {
+        if (neuralNetwork.hasSpatialLayers()) {
+            throw new IllegalArgumentException("Pipeline training doesn't support spatial layers!");
+        }
+        final int numberOfLayers = neuralNetwork.getNumberOfLayers();
+        if (numberOfStages < 1 || numberOfStages > numberOfLayers) {
+            throw new IllegalArgumentException("Number of stages has to be between 1 and number of layers!");
+        }
+        this.neuralNetwork = neuralNetwork;
+        this.layerSizes = new int[numberOfLayers + 1];
+        final long[] layerCosts = new long[numberOfLayers];
+        layerSizes[0] = neuralNetwork.getNumberOfInputs();
+        for (int i = 0; i < numberOfLayers; ++i) {
+            layerCosts[i] = neuralNetwork.getLayerWeights(i).size();
+            layerSizes[i + 1] = (int) (layerCosts[i] / (layerSizes[i] + 1));
+        }
+        this.stageBoundaries = partitionLayers(layerCosts, numberOfStages);
+    }
+
+    /**
+     * Setter for number of samples flowing through pipeline together. Smaller
+     * micro-batches adjust weights more often, larger ones make fewer hand-offs
+     * between stages.
+     *
+     * @param microBatchSize number of samples in micro-batch.
+     */
+    public void setMicroBatchSize(final int microBatchSize) {
+        if (microBatchSize < 1) {
+            throw new IllegalArgumentException("Micro-batch size has to be positive!");
+        }
+        this.microBatchSize = microBatchSize;
+    }
+
+    /**
+     * Setter for seed of random number generator used for shuffling samples, so
+     * training can be repeated.
+     *
+     * @param shuffleSeed seed used for shuffling samples.
+     */
+    public void setShuffleSeed(final long shuffleSeed) {
+        this.shuffleSeed = shuffleSeed;
+    }
+
+    /**
+     * Returns number of stages.
+     *
+     * @return number of stages.
+     */
+    public int getNumberOfStages() {
+        return stageBoundaries.length - 1;
+    }
+
+    /**
+     * Returns index of first layer of given stage, counting from zero for first
+     * hidden layer.
+     *
+     * @param stage index of stage
+     * @return index of first layer of stage.
+     */
+    public int getFirstLayerOfStage(final int stage) {
+        return stageBoundaries[stage];
+    }
+
+    /**
+     * Trains network on given samples using pipeline of stages.
+     *
+     * @param trainingMap        map containing input vectors and expected values
+     *                           used for training.
+     * @param numberOfIterations number of training iterations.
+     * @param learningRate       learning rate used in training.
+     * @return list of root mean square errors (RMSE) from all iterations.
+     */
+    public List<Double> train(final Map<List<Double>, List<Double>> trainingMap, final int numberOfIterations,
+            final double learningRate) {
+        final List<double[][]> samples = new ArrayList<>(trainingMap.size());
+        trainingMap.forEach((inputs, expectedValues) -> {
+            if (inputs.size() != layerSizes[0] || expectedValues.size() != layerSizes[layerSizes.length - 1]) {
+                throw new IllegalArgumentException("Size of training sample doesn't match network topology!");
+            }
+            samples.add(new double[][] { inputs.stream().mapToDouble(Double::doubleValue).toArray(),
+                    expectedValues.stream().mapToDouble(Double::doubleValue).toArray() });
+        });
+        final Random shuffleRandom = new Random(shuffleSeed);
+        final List<Double> rmses = new ArrayList<>(numberOfIterations);
+        final ExecutorService executor = Executors.newFixedThreadPool(getNumberOfStages());
+        try {
+            final Lock lock = neuralNetwork.getExclusiveLock();
+            lock.lock();
+            try {
+                neuralNetwork.checkWeightsWritable();
+                final List<Stage> stages = createStages(learningRate);
+                for (int i = 0; i < numberOfIterations; ++i) {
+                    Collections.shuffle(samples, shuffleRandom);
+                    rmses.add(runIteration(executor, stages, samples) / 2D);
+                }
+            } finally {
+                neuralNetwork.markWeightsChanged();
+                lock.unlock();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return rmses;
+    }
+
+    /**
+     * Getter for trained Neural Network.
+     *
+     * @return trained Neural Network.
+     */
+    public NeuralNetwork getNeuralNetwork() {
+        return neuralNetwork;
+    }
+
+    static int[] partitionLayers(final long[] layerCosts, final int numberOfStages) {
+        final double totalCost = Arrays.stream(layerCosts).sum();
+        final int[] boundaries = new int[numberOfStages + 1];
+        boundaries[numberOfStages] = layerCosts.length;
+        long cost = 0;
+        int layer = 0;
+        for (int stage = 1; stage < numberOfStages; ++stage) {
+            final double targetCost = totalCost * stage / numberOfStages;
+            cost += layerCosts[layer++];
+            while (layer < layerCosts.length - (numberOfStages - stage)
+                    && cost + layerCosts[layer] / 2D <= targetCost) {
+                cost += layerCosts[layer++];
+            }
+            boundaries[stage] = layer;
+        }
+        return boundaries;
+    }
+
+    private List<Stage> createStages(final double learningRate) {
+        final int numberOfStages = getNumberOfStages();
+        final List<BlockingQueue<double[][]>> forwardQueues = new ArrayList<>(numberOfStages);
+        final List<BlockingQueue<double[][]>> backwardQueues = new ArrayList<>(numberOfStages);
+        for (int i = 0; i < numberOfStages; ++i) {
+            forwardQueues.add(new ArrayBlockingQueue<>(numberOfStages));
+            backwardQueues.add(new ArrayBlockingQueue<>(numberOfStages));
+        }
+        final List<Stage> stages = new ArrayList<>(numberOfStages);
+        for (int i = 0; i < numberOfStages; ++i) {
+            stages.add(new Stage(i, forwardQueues, backwardQueues, learningRate));
+        }
+        return stages;
+    }
+
+    private double runIteration(final ExecutorService executor, final List<Stage> stages,
+            final List<double[][]> samples) {
+        final List<double[][][]> microBatches = new ArrayList<>();
+        for (int i = 0; i < samples.size(); i += microBatchSize) {
+            final List<double[][]> microBatch = samples.subList(i, Math.min(samples.size(), i + microBatchSize));
+            microBatches.add(new double[][][] { microBatch.stream().map(sample -> sample[0]).toArray(double[][]::new),
+                    microBatch.stream().map(sample -> sample[1]).toArray(double[][]::new) });
+        }
+        final CompletionService<Double> completionService = new ExecutorCompletionService<>(executor);
+        final List<Future<Double>> futures = new ArrayList<>(stages.size());
+        stages.forEach(stage -> futures.add(completionService.submit(() -> stage.run(microBatches))));
+        double squaredErrors = 0D;
+        try {
+            for (int i = 0; i < stages.size(); ++i) {
+                squaredErrors += completionService.take().get();
+            }
+        } catch (final ExecutionException exception) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Pipeline stage failed!", exception.getCause());
+        } catch (final InterruptedException exception) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pipeline training interrupted!", exception);
+        }
+        return squaredErrors;
+    }
+
+    private final class Stage {
+
+        private final int stage;
+        private final int firstLayer;
+        private final int lastLayer;
+        private final BlockingQueue<double[][]> forwardInput;
+        private final BlockingQueue<double[][]> forwardOutput;
+        private final BlockingQueue<double[][]> backwardInput;
+        private final BlockingQueue<double[][]> backwardOutput;
+        private final double learningRate;
+        private final Deque<double[][][]> stashedResponses = new ArrayDeque<>();
+
+        private Stage(final int stage, final List<BlockingQueue<double[][]>> forwardQueues,
+                final List<BlockingQueue<double[][]>> backwardQueues, final double learningRate) {
+            final int numberOfStages = forwardQueues.size();
+            this.stage = stage;
+            this.firstLayer = stageBoundaries[stage];
+            this.lastLayer = stageBoundaries[stage + 1];
+            this.forwardInput = forwardQueues.get(stage);
+            this.forwardOutput = stage + 1 < numberOfStages ? forwardQueues.get(stage + 1) : null;
+            this.backwardInput = backwardQueues.get(stage);
+            this.backwardOutput = stage > 0 ? backwardQueues.get(stage - 1) : null;
+            this.learningRate = learningRate;
+        }
+
+        private double run(final List<double[][][]> microBatches) throws InterruptedException {
+            final int numberOfWarmUpMicroBatches = Math.min(getNumberOfStages() - stage - 1, microBatches.size());
+            double squaredErrors = 0D;
+            int backwardMicroBatch = 0;
+            for (int i = 0; i < microBatches.size(); ++i) {
+                forward(microBatches.get(i)[0]);
+                if (i >= numberOfWarmUpMicroBatches) {
+                    squaredErrors += backward(microBatches.get(backwardMicroBatch++)[1]);
+                }
+            }
+            while (backwardMicroBatch < microBatches.size()) {
+                squaredErrors += backward(microBatches.get(backwardMicroBatch++)[1]);
+            }
+            return squaredErrors;
+        }
+
+        private void forward(final double[][] inputs) throws InterruptedException {
+            final double[][][] responses = new double[lastLayer - firstLayer + 1][][];
+            responses[0] = stage == 0 ? inputs : forwardInput.take();
+            for (int layer = firstLayer; layer < lastLayer; ++layer) {
+                responses[layer - firstLayer + 1] = NeuralNetwork.calculateLayerResponses(
+                        neuralNetwork.getLayerWeights(layer), layerSizes[layer], responses[layer - firstLayer]);
+            }
+            stashedResponses.addLast(responses);
+            if (forwardOutput != null) {
+                forwardOutput.put(responses[responses.length - 1]);
+            }
+        }
+
+        private double backward(final double[][] expectedValues) throws InterruptedException {
+            final double[][][] responses = stashedResponses.removeFirst();
+            final double[][][] errors = new double[responses.length][][];
+            final double[][] lastResponses = responses[responses.length - 1];
+            double squaredErrors = 0D;
+            if (forwardOutput == null) {
+                errors[errors.length - 1] = new double[lastResponses.length][];
+                for (int sample = 0; sample < lastResponses.length; ++sample) {
+                    final double[] sampleErrors = new double[lastResponses[sample].length];
+                    for (int i = 0; i < sampleErrors.length; ++i) {
+                        sampleErrors[i] = expectedValues[sample][i] - lastResponses[sample][i];
+                        squaredErrors += sampleErrors[i] * sampleErrors[i];
+                    }
+                    errors[errors.length - 1][sample] = sampleErrors;
+                }
+            } else {
+                errors[errors.length - 1] = scaleBySigmoidDerivative(backwardInput.take(), lastResponses);
+            }
+            for (int layer = lastLayer - 1; layer > firstLayer; --layer) {
+                errors[layer - firstLayer] = scaleBySigmoidDerivative(
+                        propagateErrors(layer, errors[layer - firstLayer + 1]), responses[layer - firstLayer]);
+            }
+            if (backwardOutput != null) {
+                backwardOutput.put(propagateErrors(firstLayer, errors[1]));
+            }
+            for (int layer = Math.max(firstLayer, neuralNetwork.getNumberOfFrozenLayers()); layer < lastLayer;
+                    ++layer) {
+                adjustWeights(layer, responses[layer - firstLayer], errors[layer - firstLayer + 1]);
+            }
+            return squaredErrors;
+        }
+
+        private double[][] propagateErrors(final int layer, final double[][] layerErrors) {
+            final WeightBuffer weights = neuralNetwork.getLayerWeights(layer);
+            final int numberOfPreviousNeurons = layerSizes[layer];
+            final int rowLength = numberOfPreviousNeurons + 1;
+            final double[][] errors = new double[layerErrors.length][numberOfPreviousNeurons];
+            for (int neuron = 0; neuron < layerSizes[layer + 1]; ++neuron) {
+                final int offset = neuron * rowLength;
+                for (int sample = 0; sample < layerErrors.length; ++sample) {
+                    final double error = layerErrors[sample][neuron];
+                    final double[] sampleErrors = errors[sample];
+                    for (int i = 0; i < numberOfPreviousNeurons; ++i) {
+                        sampleErrors[i] += weights.get(offset + i) * error;
+                    }
+                }
+            }
+            return errors;
+        }
+
+        private void adjustWeights(final int layer, final double[][] previousResponses,
+                final double[][] layerErrors) {
+            final WeightBuffer weights = neuralNetwork.getLayerWeights(layer);
+            final int numberOfPreviousNeurons = layerSizes[layer];
+            final int rowLength = numberOfPreviousNeurons + 1;
+            final double[] scaledErrors = new double[layerErrors.length];
+            for (int neuron = 0; neuron < layerSizes[layer + 1]; ++neuron) {
+                final int offset = neuron * rowLength;
+                double biasAdjustment = 0D;
+                for (int sample = 0; sample < layerErrors.length; ++sample) {
+                    scaledErrors[sample] = layerErrors[sample][neuron] * learningRate;
+                    biasAdjustment += scaledErrors[sample];
+                }
+                for (int i = 0; i < numberOfPreviousNeurons; ++i) {
+                    double adjustment = 0D;
+                    for (int sample = 0; sample < layerErrors.length; ++sample) {
+                        adjustment += scaledErrors[sample] * previousResponses[sample][i];
+                    }
+                    weights.add(offset + i, adjustment);
+                }
+                weights.add(offset + numberOfPreviousNeurons, biasAdjustment);
+            }
+        }
+
+        private double[][] scaleBySigmoidDerivative(final double[][] errors, final double[][] responses) {
+            for (int sample = 0; sample < errors.length; ++sample) {
+                for (int i = 0; i < errors[sample].length; ++i) {
+                    errors[sample][i] = errors[sample][i] * responses[sample][i] * (1D - responses[sample][i]);
+                }
+            }
+            return errors;
+        }
+
+    }
+
+}
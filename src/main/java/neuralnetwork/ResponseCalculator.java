@@ -0,0 +1,24 @@
+package neuralnetwork;
+
+import java.util.List;
+
+/**
+ * Interface providing calculating network response functionality. <br>
+ * <br>
+ * Implemented by single Neural Network as well as by classes combining or
+ * wrapping networks, so all of them can be tested the same way.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetworkTrainer#test(ResponseCalculator)
+ */
+public interface ResponseCalculator {
+
+    /**
+     * Calculate response based on given inputs.
+     *
+     * @param inputs list consisting of input values as doubles (input vector)
+     * @return list consisting of responses of each output (output vector)
+     */
+    List<Double> calculateResponse(List<Double> inputs);
+
+}
@@ -0,0 +1,60 @@
+package neuralnetwork;
+
+/**
+ * Schemes for initial weights of connections between neural layers. <br>
+ * <br>
+ * Each scheme defines bound of uniform distribution from which weights of
+ * layer are drawn, based on number of inputs (fan-in) and number of neurons
+ * (fan-out) of that layer.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetwork
+ */
+public enum WeightInitialization {
+
+    /**
+     * Weights and biases drawn uniformly from range (-0.1, 0.1), regardless of
+     * layer size.
+     */
+    UNIFORM {
+        @Override
+        double weightBound(final int fanIn, final int fanOut) {
+            return 0.1;
+        }
+
+        @Override
+        double biasBound() {
+            return 0.1;
+        }
+    },
+
+    /**
+     * Xavier (Glorot) initialization - weights drawn uniformly from range
+     * (-sqrt(6 / (fanIn + fanOut)), sqrt(6 / (fanIn + fanOut))), biases set to
+     * zero. Suited for sigmoid activation used by neurons.
+     */
+    XAVIER {
+        @Override
+        double weightBound(final int fanIn, final int fanOut) {
+            return Math.sqrt(6D / (fanIn + fanOut));
+        }
+    },
+
+    /**
+     * He (Kaiming) initialization - weights drawn uniformly from range
+     * (-sqrt(6 / fanIn), sqrt(6 / fanIn)), biases set to zero.
+     */
+    HE {
+        @Override
+        double weightBound(final int fanIn, final int fanOut) {
+            return Math.sqrt(6D / fanIn);
+        }
+    };
+
+    abstract double weightBound(int fanIn, int fanOut);
+
+    double biasBound() {
+        return 0D;
+    }
+
+}
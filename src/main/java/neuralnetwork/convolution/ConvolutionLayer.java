@@ -0,0 +1,205 @@
+package neuralnetwork.convolution;
+
+import neuralnetwork.helpers.MathOperations;
+
+import java.util.Arrays;
+
+/**
+ * Two-dimensional convolution layer with sigmoid activation. <br>
+ * <br>
+ * Each filter is square kernel spanning all input channels, moved over input
+ * with given stride without padding, and produces one output channel. Weights
+ * of filter are shared by all positions of kernel, so layer has far fewer
+ * weights than fully connected layer with the same number of outputs. Row of
+ * weights of filter contains kernel weights channel after channel, each
+ * channel row after row, followed by bias.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see SpatialLayer
+ */
+public class ConvolutionLayer implements SpatialLayer {
+
+    private static final long serialVersionUID = 4418273365470152071L;
+    private final int inputWidth;
+    private final int inputHeight;
+    private final int inputChannels;
+    private final int numberOfFilters;
+    private final int kernelSize;
+    private final int stride;
+    private final int outputWidth;
+    private final int outputHeight;
+    private double[] weights;
+
+    /**
+     * Creates convolution layer with stride of one.
+     *
+     * @param inputWidth      width of input
+     * @param inputHeight     height of input
+     * @param inputChannels   number of input channels
+     * @param numberOfFilters number of filters, equal to number of output
+     *                        channels
+     * @param kernelSize      width and height of kernel
+     */
+    public ConvolutionLayer(final int inputWidth, final int inputHeight, final int inputChannels,
+            final int numberOfFilters, final int kernelSize) {
+        this(inputWidth, inputHeight, inputChannels, numberOfFilters, kernelSize, 1);
+    }
+
+    /**
+     * Creates convolution layer. Kernel larger than input or non-positive
+     * dimensions cause {@link IllegalArgumentException}.
+     *
+     * @param inputWidth      width of input
+     * @param inputHeight     height of input
+     * @param inputChannels   number of input channels
+     * @param numberOfFilters number of filters, equal to number of output
+     *                        channels
+     * @param kernelSize      width and height of kernel
+     * @param stride          distance between consecutive positions of kernel
+     */
+    public ConvolutionLayer(final int inputWidth, final int inputHeight, final int inputChannels,
+            final int numberOfFilters, final int kernelSize, final int stride) {
+        if (inputWidth <= 0 || inputHeight <= 0 || inputChannels <= 0 || numberOfFilters <= 0 || kernelSize <= 0
+                || stride <= 0) {
+            throw new IllegalArgumentException("Dimensions of convolution layer have to be positive!");
+        }
+        if (kernelSize > inputWidth || kernelSize > inputHeight) {
+            throw new IllegalArgumentException("Kernel can't be larger than input!");
+        }
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+        this.inputChannels = inputChannels;
+        this.numberOfFilters = numberOfFilters;
+        this.kernelSize = kernelSize;
+        this.stride = stride;
+        this.outputWidth = (inputWidth - kernelSize) / stride + 1;
+        this.outputHeight = (inputHeight - kernelSize) / stride + 1;
+        this.weights = new double[numberOfFilters * (getFanIn() + 1)];
+    }
+
+    @Override
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    @Override
+    public int getInputHeight() {
+        return inputHeight;
+    }
+
+    @Override
+    public int getInputChannels() {
+        return inputChannels;
+    }
+
+    @Override
+    public int getOutputWidth() {
+        return outputWidth;
+    }
+
+    @Override
+    public int getOutputHeight() {
+        return outputHeight;
+    }
+
+    @Override
+    public int getOutputChannels() {
+        return numberOfFilters;
+    }
+
+    @Override
+    public int getFanIn() {
+        return inputChannels * kernelSize * kernelSize;
+    }
+
+    @Override
+    public int getFanOut() {
+        return numberOfFilters * kernelSize * kernelSize;
+    }
+
+    @Override
+    public int getNumberOfWeightRows() {
+        return numberOfFilters;
+    }
+
+    @Override
+    public void configureWeights(final double[] weights) {
+        if (weights.length != numberOfFilters * (getFanIn() + 1)) {
+            throw new IllegalArgumentException("Number of weights doesn't match convolution layer!");
+        }
+        this.weights = weights;
+    }
+
+    @Override
+    public double[] calculateResponses(final double[] inputs) {
+        final int rowLength = getFanIn() + 1;
+        final int outputPlaneSize = outputWidth * outputHeight;
+        final double[] responses = new double[numberOfFilters * outputPlaneSize];
+        for (int filter = 0; filter < numberOfFilters; ++filter) {
+            final int outputOffset = filter * outputPlaneSize;
+            final int weightsOffset = filter * rowLength;
+            Arrays.fill(responses, outputOffset, outputOffset + outputPlaneSize,
+                    weights[weightsOffset + rowLength - 1]);
+            int weightIndex = weightsOffset;
+            for (int channel = 0; channel < inputChannels; ++channel) {
+                for (int kernelY = 0; kernelY < kernelSize; ++kernelY) {
+                    for (int kernelX = 0; kernelX < kernelSize; ++kernelX) {
+                        final double weight = weights[weightIndex++];
+                        for (int y = 0; y < outputHeight; ++y) {
+                            final int inputRow = (channel * inputHeight + y * stride + kernelY) * inputWidth + kernelX;
+                            final int outputRow = outputOffset + y * outputWidth;
+                            for (int x = 0; x < outputWidth; ++x) {
+                                responses[outputRow + x] += weight * inputs[inputRow + x * stride];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < responses.length; ++i) {
+            responses[i] = MathOperations.sigmoid(responses[i]);
+        }
+        return responses;
+    }
+
+    @Override
+    public double[] backpropagate(final double[] inputs, final double[] responses, final double[] errors,
+            final double learningRate) {
+        final double[] scaledErrors = new double[responses.length];
+        for (int i = 0; i < responses.length; ++i) {
+            scaledErrors[i] = errors[i] * responses[i] * (1D - responses[i]);
+        }
+        final int rowLength = getFanIn() + 1;
+        final int outputPlaneSize = outputWidth * outputHeight;
+        final double[] inputErrors = new double[inputs.length];
+        for (int filter = 0; filter < numberOfFilters; ++filter) {
+            final int outputOffset = filter * outputPlaneSize;
+            int weightIndex = filter * rowLength;
+            for (int channel = 0; channel < inputChannels; ++channel) {
+                for (int kernelY = 0; kernelY < kernelSize; ++kernelY) {
+                    for (int kernelX = 0; kernelX < kernelSize; ++kernelX) {
+                        final double weight = weights[weightIndex];
+                        double gradient = 0D;
+                        for (int y = 0; y < outputHeight; ++y) {
+                            final int inputRow = (channel * inputHeight + y * stride + kernelY) * inputWidth + kernelX;
+                            final int outputRow = outputOffset + y * outputWidth;
+                            for (int x = 0; x < outputWidth; ++x) {
+                                final double scaledError = scaledErrors[outputRow + x];
+                                gradient += scaledError * inputs[inputRow + x * stride];
+                                inputErrors[inputRow + x * stride] += scaledError * weight;
+                            }
+                        }
+                        weights[weightIndex++] += learningRate * gradient;
+                    }
+                }
+            }
+            double biasGradient = 0D;
+            for (int i = outputOffset; i < outputOffset + outputPlaneSize; ++i) {
+                biasGradient += scaledErrors[i];
+            }
+            weights[weightIndex] += learningRate * biasGradient;
+        }
+        return inputErrors;
+    }
+
+}
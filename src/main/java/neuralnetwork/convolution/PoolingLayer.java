@@ -0,0 +1,186 @@
+package neuralnetwork.convolution;
+
+/**
+ * Two-dimensional pooling layer without weights. <br>
+ * <br>
+ * Each channel is divided into non-overlapping square windows, each of them
+ * replaced by its maximum or average. Reduces size of input for further layers.
+ * Rows and columns not fitting into whole window are skipped.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see SpatialLayer
+ */
+public class PoolingLayer implements SpatialLayer {
+
+    /**
+     * Method of reducing window into single value.
+     */
+    public enum Type {
+
+        /**
+         * Maximum value in window. Error is passed only to input with maximum
+         * value.
+         */
+        MAX,
+
+        /**
+         * Average value in window. Error is divided equally between inputs.
+         */
+        AVERAGE
+
+    }
+
+    private static final long serialVersionUID = -2378129847813563421L;
+    private final int inputWidth;
+    private final int inputHeight;
+    private final int channels;
+    private final int poolSize;
+    private final Type type;
+    private final int outputWidth;
+    private final int outputHeight;
+
+    /**
+     * Creates pooling layer. Window larger than input or non-positive dimensions
+     * cause {@link IllegalArgumentException}.
+     *
+     * @param inputWidth  width of input
+     * @param inputHeight height of input
+     * @param channels    number of input and output channels
+     * @param poolSize    width and height of window
+     * @param type        method of reducing window into single value
+     */
+    public PoolingLayer(final int inputWidth, final int inputHeight, final int channels, final int poolSize,
+            final Type type) {
+        if (inputWidth <= 0 || inputHeight <= 0 || channels <= 0 || poolSize <= 0) {
+            throw new IllegalArgumentException("Dimensions of pooling layer have to be positive!");
+        }
+        if (poolSize > inputWidth || poolSize > inputHeight) {
+            throw new IllegalArgumentException("Pooling window can't be larger than input!");
+        }
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+        this.channels = channels;
+        this.poolSize = poolSize;
+        this.type = type;
+        this.outputWidth = inputWidth / poolSize;
+        this.outputHeight = inputHeight / poolSize;
+    }
+
+    @Override
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    @Override
+    public int getInputHeight() {
+        return inputHeight;
+    }
+
+    @Override
+    public int getInputChannels() {
+        return channels;
+    }
+
+    @Override
+    public int getOutputWidth() {
+        return outputWidth;
+    }
+
+    @Override
+    public int getOutputHeight() {
+        return outputHeight;
+    }
+
+    @Override
+    public int getOutputChannels() {
+        return channels;
+    }
+
+    @Override
+    public int getFanIn() {
+        return 0;
+    }
+
+    @Override
+    public int getFanOut() {
+        return 0;
+    }
+
+    @Override
+    public int getNumberOfWeightRows() {
+        return 0;
+    }
+
+    @Override
+    public void configureWeights(final double[] weights) {
+        if (weights.length != 0) {
+            throw new IllegalArgumentException("Pooling layer doesn't have weights!");
+        }
+    }
+
+    @Override
+    public double[] calculateResponses(final double[] inputs) {
+        final double[] responses = new double[getOutputSize()];
+        int output = 0;
+        for (int channel = 0; channel < channels; ++channel) {
+            for (int y = 0; y < outputHeight; ++y) {
+                for (int x = 0; x < outputWidth; ++x) {
+                    final int window = (channel * inputHeight + y * poolSize) * inputWidth + x * poolSize;
+                    responses[output++] = type == Type.MAX ? inputs[findMaximum(inputs, window)]
+                            : sumWindow(inputs, window) / (poolSize * poolSize);
+                }
+            }
+        }
+        return responses;
+    }
+
+    @Override
+    public double[] backpropagate(final double[] inputs, final double[] responses, final double[] errors,
+            final double learningRate) {
+        final double[] inputErrors = new double[inputs.length];
+        int output = 0;
+        for (int channel = 0; channel < channels; ++channel) {
+            for (int y = 0; y < outputHeight; ++y) {
+                for (int x = 0; x < outputWidth; ++x) {
+                    final int window = (channel * inputHeight + y * poolSize) * inputWidth + x * poolSize;
+                    if (type == Type.MAX) {
+                        inputErrors[findMaximum(inputs, window)] += errors[output];
+                    } else {
+                        final double error = errors[output] / (poolSize * poolSize);
+                        for (int windowY = 0; windowY < poolSize; ++windowY) {
+                            for (int windowX = 0; windowX < poolSize; ++windowX) {
+                                inputErrors[window + windowY * inputWidth + windowX] += error;
+                            }
+                        }
+                    }
+                    ++output;
+                }
+            }
+        }
+        return inputErrors;
+    }
+
+    private int findMaximum(final double[] inputs, final int window) {
+        int maximum = window;
+        for (int windowY = 0; windowY < poolSize; ++windowY) {
+            for (int windowX = 0; windowX < poolSize; ++windowX) {
+                final int input = window + windowY * inputWidth + windowX;
+                if (inputs[input] > inputs[maximum]) {
+                    maximum = input;
+                }
+            }
+        }
+        return maximum;
+    }
+
+    private double sumWindow(final double[] inputs, final int window) {
+        double sum = 0D;
+        for (int windowY = 0; windowY < poolSize; ++windowY) {
+            for (int windowX = 0; windowX < poolSize; ++windowX) {
+                sum += inputs[window + windowY * inputWidth + windowX];
+            }
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,133 @@
+package neuralnetwork.convolution;
+
+import java.io.Serializable;
+
+/**
+ * Layer transforming spatial input of given width, height and number of
+ * channels into spatial output. <br>
+ * <br>
+ * Weights of layer, if it has any, are stored in single array consisting of
+ * rows - weights of connections with inputs followed by bias - same as weights
+ * of fully connected layer. Array is configured by network owning the layer,
+ * so it can be initialized, exported and imported together with other weights.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see ConvolutionLayer
+ * @see PoolingLayer
+ */
+public interface SpatialLayer extends Serializable {
+
+    /**
+     * Returns width of input.
+     *
+     * @return width of input.
+     */
+    int getInputWidth();
+
+    /**
+     * Returns height of input.
+     *
+     * @return height of input.
+     */
+    int getInputHeight();
+
+    /**
+     * Returns number of input channels.
+     *
+     * @return number of input channels.
+     */
+    int getInputChannels();
+
+    /**
+     * Returns width of output.
+     *
+     * @return width of output.
+     */
+    int getOutputWidth();
+
+    /**
+     * Returns height of output.
+     *
+     * @return height of output.
+     */
+    int getOutputHeight();
+
+    /**
+     * Returns number of output channels.
+     *
+     * @return number of output channels.
+     */
+    int getOutputChannels();
+
+    /**
+     * Returns number of input values.
+     *
+     * @return width times height times number of channels of input.
+     */
+    default int getInputSize() {
+        return getInputWidth() * getInputHeight() * getInputChannels();
+    }
+
+    /**
+     * Returns number of output values.
+     *
+     * @return width times height times number of channels of output.
+     */
+    default int getOutputSize() {
+        return getOutputWidth() * getOutputHeight() * getOutputChannels();
+    }
+
+    /**
+     * Returns number of weights in each row, excluding bias.
+     *
+     * @return number of inputs of each row of weights.
+     */
+    int getFanIn();
+
+    /**
+     * Returns number of outputs each input is connected to, used for choosing
+     * initial weights.
+     *
+     * @return number of outputs of each input.
+     */
+    int getFanOut();
+
+    /**
+     * Returns number of rows of weights, zero for layers without weights.
+     *
+     * @return number of rows of weights.
+     */
+    int getNumberOfWeightRows();
+
+    /**
+     * Configures array holding weights of layer. Array is not copied. Array of
+     * length other than number of rows times fan-in increased by one for bias
+     * causes {@link IllegalArgumentException}.
+     *
+     * @param weights array holding weights of layer
+     */
+    void configureWeights(double[] weights);
+
+    /**
+     * Calculates output of layer for given input. Doesn't modify state of layer,
+     * so it can be used for many inputs concurrently.
+     *
+     * @param inputs input values
+     * @return output values.
+     */
+    double[] calculateResponses(double[] inputs);
+
+    /**
+     * Calculates errors of inputs based on errors of outputs, then adjusts
+     * weights of layer. Errors of outputs are weighted sums of errors of next
+     * layer, before applying derivative of activation of this layer.
+     *
+     * @param inputs       input values used to calculate responses
+     * @param responses    output values calculated for given inputs
+     * @param errors       errors of output values
+     * @param learningRate learning rate used for training
+     * @return errors of input values.
+     */
+    double[] backpropagate(double[] inputs, double[] responses, double[] errors, double learningRate);
+
+}
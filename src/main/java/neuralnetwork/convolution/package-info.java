@@ -0,0 +1,10 @@
+/**
+ * Package storing layers working on spatial inputs, such as images, which can
+ * precede fully connected layers of Neural Network. Spatial inputs are stored
+ * as single array, channel after channel, each channel row after row.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see neuralnetwork.NeuralNetwork
+ */
+
+package neuralnetwork.convolution;
@@ -0,0 +1,243 @@
+package neuralnetwork.distributed;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.helpers.WeightOperations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Server keeping weights of Neural Network trained by multiple
+ * {@link ParameterServerWorker workers}. <br>
+ * <br>
+ * Each worker pulls current weights, trains its replica of the network for
+ * single iteration on its own part of training data and pushes difference
+ * between trained and pulled weights back. Pushed differences are averaged over
+ * all workers and added to weights kept by the server. <br>
+ * <br>
+ * Maximum staleness defines how many iterations worker can be ahead of the
+ * slowest worker - worker pulling weights waits until it is within that bound.
+ * Workers which announced finishing their training or disconnected are not
+ * waited for.
+ * With maximum staleness of zero training is synchronous - differences pushed
+ * in each iteration are kept aside until all workers push theirs and then
+ * added together in order of workers, so every worker starts each iteration
+ * from the same weights and training can be repeated. Pushed weights of
+ * different shape than weights of the network are rejected before any of them
+ * is read into memory.
+ * Weights are transferred in compact binary form, not by serializing entire
+ * network.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see ParameterServerWorker
+ */
+public class ParameterServer implements Closeable {
+
+    static final byte REGISTER = 0;
+    static final byte PULL = 1;
+    static final byte PUSH = 2;
+    static final byte FINISH = 3;
+    private static final int FINISHED = Integer.MAX_VALUE;
+    private final ServerSocket serverSocket;
+    private final double[][] weights;
+    private final int[] iterations;
+    private final int maxStaleness;
+    private final double[][][] pendingDifferences;
+    private int numberOfAppliedIterations = 0;
+    private int numberOfRegisteredWorkers = 0;
+    private long numberOfUpdates = 0;
+
+    /**
+     * Constructor. Starts listening for workers on loopback address.
+     *
+     * @param neuralNetwork   Neural Network which weights are used as initial
+     *                        weights.
+     * @param port            port to listen on, zero for any free port.
+     * @param numberOfWorkers number of workers training the network.
+     * @param maxStaleness    number of iterations worker can be ahead of the
+     *                        slowest worker, zero for synchronous training.
+     * @throws IOException I/O error occurred when opening the socket.
+     */
+    public ParameterServer(final NeuralNetwork neuralNetwork, final int port, final int numberOfWorkers,
+            final int maxStaleness) throws IOException {
+        this(neuralNetwork, new ServerSocket(port, numberOfWorkers, InetAddress.getLoopbackAddress()),
+                numberOfWorkers, maxStaleness);
+    }
+
+    /**
+     * Constructor. Starts accepting workers on provided server socket, e.g. bound
+     * to address reachable from other machines.
+     *
+     * @param neuralNetwork   Neural Network which weights are used as initial
+     *                        weights.
+     * @param serverSocket    bound server socket to accept workers on.
+     * @param numberOfWorkers number of workers training the network.
+     * @param maxStaleness    number of iterations worker can be ahead of the
+     *                        slowest worker, zero for synchronous training.
+     */
+    public ParameterServer(final NeuralNetwork neuralNetwork, final ServerSocket serverSocket,
+            final int numberOfWorkers, final int maxStaleness) {
+        if (numberOfWorkers < 1 || maxStaleness < 0) {
+            throw new IllegalArgumentException("Number of workers has to be positive and staleness non-negative!");
+        }
+        this.serverSocket = serverSocket;
+        this.weights = neuralNetwork.exportWeights();
+        this.iterations = new int[numberOfWorkers];
+        this.maxStaleness = maxStaleness;
+        this.pendingDifferences = new double[numberOfWorkers][][];
+        final Thread acceptingThread = new Thread(this::acceptWorkers, "parameter-server");
+        acceptingThread.setDaemon(true);
+        acceptingThread.start();
+    }
+
+    /**
+     * Returns port the server is listening on.
+     *
+     * @return port the server is listening on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns copy of current weights in form accepted by
+     * {@link NeuralNetwork#importWeights(double[][])}.
+     *
+     * @return copy of current weights.
+     */
+    public synchronized double[][] getWeights() {
+        return WeightOperations.copyWeights(weights);
+    }
+
+    /**
+     * Returns number of weight updates pushed by all workers so far.
+     *
+     * @return number of weight updates.
+     */
+    public synchronized long getNumberOfUpdates() {
+        return numberOfUpdates;
+    }
+
+    /**
+     * Stops accepting new workers. Connections with already registered workers
+     * are closed by workers.
+     *
+     * @throws IOException I/O error occurred when closing the socket.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptWorkers() {
+        try {
+            while (!serverSocket.isClosed()) {
+                final Socket socket = serverSocket.accept();
+                final Thread workerThread = new Thread(() -> serveWorker(socket), "parameter-server-worker");
+                workerThread.setDaemon(true);
+                workerThread.start();
+            }
+        } catch (final SocketException exception) {
+            // server socket closed
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    private void serveWorker(final Socket socket) {
+        int workerId = -1;
+        try (socket;
+                DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                final byte command = input.readByte();
+                if (command == REGISTER) {
+                    workerId = registerWorker();
+                    output.writeInt(workerId);
+                } else if (workerId < 0) {
+                    throw new IOException("Worker has to be registered and not finished to exchange weights!");
+                } else if (command == PULL) {
+                    WeightOperations.writeWeights(output, pullWeights(workerId));
+                } else if (command == PUSH) {
+                    pushWeightsDifference(workerId, WeightOperations.readWeights(input, weights));
+                    output.writeBoolean(true);
+                } else if (command == FINISH) {
+                    finishWorker(workerId);
+                    workerId = -1;
+                    output.writeBoolean(true);
+                } else {
+                    throw new IOException("Unknown command " + command);
+                }
+                output.flush();
+            }
+        } catch (final EOFException exception) {
+            // worker disconnected
+        } catch (final IOException exception) {
+            exception.printStackTrace();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finishWorker(workerId);
+        }
+    }
+
+    private synchronized int registerWorker() throws IOException {
+        if (numberOfRegisteredWorkers == iterations.length) {
+            throw new IOException("All workers already registered!");
+        }
+        return numberOfRegisteredWorkers++;
+    }
+
+    private synchronized double[][] pullWeights(final int workerId) throws InterruptedException {
+        while (iterations[workerId] - Arrays.stream(iterations).min().orElseThrow() > maxStaleness) {
+            wait();
+        }
+        return WeightOperations.copyWeights(weights);
+    }
+
+    private synchronized void pushWeightsDifference(final int workerId, final double[][] weightsDifference) {
+        if (maxStaleness == 0) {
+            pendingDifferences[workerId] = weightsDifference;
+        } else {
+            WeightOperations.addScaledWeights(weights, weightsDifference, 1D / iterations.length);
+        }
+        ++iterations[workerId];
+        ++numberOfUpdates;
+        applyCompletedIteration();
+        notifyAll();
+    }
+
+    private synchronized void finishWorker(final int workerId) {
+        if (workerId >= 0) {
+            iterations[workerId] = FINISHED;
+            applyCompletedIteration();
+            notifyAll();
+        }
+    }
+
+    private void applyCompletedIteration() {
+        if (Arrays.stream(pendingDifferences).allMatch(Objects::isNull)
+                || Arrays.stream(iterations).anyMatch(iteration -> iteration <= numberOfAppliedIterations)) {
+            return;
+        }
+        for (int i = 0; i < pendingDifferences.length; ++i) {
+            if (pendingDifferences[i] != null) {
+                WeightOperations.addScaledWeights(weights, pendingDifferences[i], 1D / iterations.length);
+                pendingDifferences[i] = null;
+            }
+        }
+        ++numberOfAppliedIterations;
+    }
+
+}
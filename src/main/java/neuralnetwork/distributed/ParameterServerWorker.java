@@ -0,0 +1,155 @@
+package neuralnetwork.distributed;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.NeuralNetworkTrainer;
+import neuralnetwork.helpers.WeightOperations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Worker training replica of Neural Network on its own part of training data
+ * and exchanging weights with {@link ParameterServer}. <br>
+ * <br>
+ * Worker can run in the same process as the server or in any other process
+ * able to connect to it.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see ParameterServer
+ */
+public class ParameterServerWorker implements Closeable {
+
+    private final Socket socket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final NeuralNetwork neuralNetwork;
+    private final NeuralNetworkTrainer trainer;
+    private double[][] pulledWeights;
+    private boolean finished = false;
+
+    /**
+     * Constructor. Connects and registers to the parameter server.
+     *
+     * @param host          host of parameter server.
+     * @param port          port of parameter server.
+     * @param neuralNetwork replica of trained Neural Network, has to have the same
+     *                      topology as network used by the server.
+     * @param trainingMap   part of training data used by this worker.
+     * @param learningRate  learning rate used in training.
+     * @throws IOException I/O error occurred when connecting to the server.
+     */
+    public ParameterServerWorker(final String host, final int port, final NeuralNetwork neuralNetwork,
+            final Map<List<Double>, List<Double>> trainingMap, final double learningRate) throws IOException {
+        this.socket = new Socket(host, port);
+        this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.neuralNetwork = neuralNetwork;
+        this.trainer = new NeuralNetworkTrainer(neuralNetwork, trainingMap, Map.of(), 0, learningRate);
+        trainer.setVerbose(false);
+        trainer.setIterationListener(iteration -> exchangeWeights());
+        output.writeByte(ParameterServer.REGISTER);
+        output.flush();
+        input.readInt();
+    }
+
+    /**
+     * Setter for seed of random number generator used for shuffling training
+     * samples between iterations, so synchronous training can be repeated.
+     *
+     * @param shuffleSeed seed used for shuffling training samples.
+     * @see NeuralNetworkTrainer#setShuffleSeed(long)
+     */
+    public void setShuffleSeed(final long shuffleSeed) {
+        trainer.setShuffleSeed(shuffleSeed);
+    }
+
+    /**
+     * Trains the network for specified number of iterations. Each iteration
+     * starts with weights pulled from the server and ends with pushing weight
+     * updates to the server. Network ends with weights pulled after last
+     * iteration. After training worker announces to the server that it is
+     * finished, so other workers don't wait for it, therefore it can be trained
+     * only once.
+     *
+     * @param numberOfIterations number of training iterations.
+     * @return list of root mean square errors (RMSE) from all iterations.
+     * @throws IOException I/O error occurred when communicating with the server.
+     */
+    public List<Double> train(final int numberOfIterations) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Worker has already finished training!");
+        }
+        finished = true;
+        pullAndImportWeights();
+        trainer.setNumberOfIterations(numberOfIterations);
+        try {
+            final List<Double> rmses = trainer.train();
+            finish();
+            return rmses;
+        } catch (final UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    /**
+     * Getter for trained Neural Network replica.
+     *
+     * @return trained Neural Network replica.
+     */
+    public NeuralNetwork getNeuralNetwork() {
+        return neuralNetwork;
+    }
+
+    /**
+     * Disconnects from the server, letting other workers continue without waiting
+     * for this one.
+     *
+     * @throws IOException I/O error occurred when closing the connection.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void exchangeWeights() {
+        try {
+            pushWeightsDifference(WeightOperations.subtractWeights(neuralNetwork.exportWeights(), pulledWeights));
+            pullAndImportWeights();
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void pullAndImportWeights() throws IOException {
+        pulledWeights = pullWeights();
+        neuralNetwork.importWeights(pulledWeights);
+    }
+
+    private double[][] pullWeights() throws IOException {
+        output.writeByte(ParameterServer.PULL);
+        output.flush();
+        return WeightOperations.readWeights(input);
+    }
+
+    private void finish() throws IOException {
+        output.writeByte(ParameterServer.FINISH);
+        output.flush();
+        input.readBoolean();
+    }
+
+    private void pushWeightsDifference(final double[][] weightsDifference) throws IOException {
+        output.writeByte(ParameterServer.PUSH);
+        WeightOperations.writeWeights(output, weightsDifference);
+        output.flush();
+        input.readBoolean();
+    }
+
+}
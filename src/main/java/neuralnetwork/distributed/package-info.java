@@ -0,0 +1,11 @@
+/**
+ * Package storing classes for training single Neural Network in multiple
+ * processes. Parameter server keeps the weights, while workers train their
+ * replicas of the network on separate parts of training data and send weight
+ * updates back to the server over TCP.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see neuralnetwork.NeuralNetwork
+ */
+
+package neuralnetwork.distributed;
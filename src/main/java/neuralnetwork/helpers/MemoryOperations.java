@@ -0,0 +1,88 @@
+package neuralnetwork.helpers;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MemoryOperations {
+
+    public static final int REFERENCE_BYTES = 4;
+    private static final int OBJECT_HEADER_BYTES = 12;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int ALIGNMENT = 8;
+    private static final float HASH_MAP_LOAD_FACTOR = 0.75F;
+    private static final int IMMUTABLE_MAP_SLOTS_PER_ENTRY = 4;
+    private static final Class<?> IMMUTABLE_COLLECTIONS_CLASS = Map.of().getClass().getEnclosingClass();
+
+    public static long objectBytes(final int numberOfReferences, final int primitiveBytes) {
+        return align(OBJECT_HEADER_BYTES + (long) numberOfReferences * REFERENCE_BYTES + primitiveBytes);
+    }
+
+    public static long arrayBytes(final long length, final int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + length * elementBytes);
+    }
+
+    public static long arrayListBytes(final long size) {
+        return objectBytes(1, 2 * Integer.BYTES) + arrayBytes(size, REFERENCE_BYTES);
+    }
+
+    public static long hashMapBytes(final long size) {
+        return hashMapBytes(size, 0);
+    }
+
+    public static long hashMapBytes(final long size, final long initialCapacity) {
+        return objectBytes(4, 3 * Integer.BYTES + Float.BYTES)
+                + arrayBytes(hashMapCapacity(size, initialCapacity), REFERENCE_BYTES)
+                + size * objectBytes(3, Integer.BYTES);
+    }
+
+    public static long linkedHashMapBytes(final long size) {
+        return objectBytes(6, 3 * Integer.BYTES + Float.BYTES + 1)
+                + arrayBytes(hashMapCapacity(size, 0), REFERENCE_BYTES) + size * objectBytes(5, Integer.BYTES);
+    }
+
+    public static long immutableMapBytes(final long size) {
+        if (size == 0) {
+            return 0;
+        }
+        return size == 1 ? objectBytes(2, 0)
+                : objectBytes(1, Integer.BYTES) + arrayBytes(IMMUTABLE_MAP_SLOTS_PER_ENTRY * size, REFERENCE_BYTES);
+    }
+
+    public static long mapBytes(final Map<?, ?> map) {
+        if (map.getClass().getEnclosingClass() == IMMUTABLE_COLLECTIONS_CLASS) {
+            return immutableMapBytes(map.size());
+        }
+        return map instanceof LinkedHashMap ? linkedHashMapBytes(map.size()) : hashMapBytes(map.size());
+    }
+
+    public static long readWriteLockBytes() {
+        return objectBytes(3, 0) + 2 * objectBytes(1, 0) + objectBytes(6, 2 * Integer.BYTES)
+                + objectBytes(0, Integer.BYTES);
+    }
+
+    public static long doubleListBytes(final Collection<Double> list) {
+        return arrayListBytes(list.size()) + list.size() * objectBytes(0, Double.BYTES);
+    }
+
+    public static long datasetHeapBytes(final Map<List<Double>, List<Double>> dataset) {
+        return mapBytes(dataset) + dataset.entrySet().stream()
+                .mapToLong(entry -> doubleListBytes(entry.getKey()) + doubleListBytes(entry.getValue())).sum();
+    }
+
+    public static long datasetRawBytes(final Map<List<Double>, List<Double>> dataset) {
+        return dataset.entrySet().stream()
+                .mapToLong(entry -> (long) (entry.getKey().size() + entry.getValue().size()) * Double.BYTES).sum();
+    }
+
+    private static long hashMapCapacity(final long size, final long initialCapacity) {
+        final long minimumCapacity = Math.max(initialCapacity, (long) Math.ceil(size / HASH_MAP_LOAD_FACTOR));
+        return Long.highestOneBit(Math.max(1L, minimumCapacity) * 2 - 1);
+    }
+
+    private static long align(final long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+}
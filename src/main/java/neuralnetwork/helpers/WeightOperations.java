@@ -0,0 +1,83 @@
+package neuralnetwork.helpers;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+public class WeightOperations {
+
+    private static final int DOUBLES_PER_BLOCK = 8192;
+
+    public static void writeWeights(final DataOutput output, final double[][] weights) throws IOException {
+        final ByteBuffer block = ByteBuffer.allocate(DOUBLES_PER_BLOCK * Double.BYTES);
+        final DoubleBuffer doubleBlock = block.asDoubleBuffer();
+        output.writeInt(weights.length);
+        for (final double[] layerWeights : weights) {
+            output.writeInt(layerWeights.length);
+            for (int offset = 0; offset < layerWeights.length; offset += DOUBLES_PER_BLOCK) {
+                final int length = Math.min(DOUBLES_PER_BLOCK, layerWeights.length - offset);
+                doubleBlock.clear();
+                doubleBlock.put(layerWeights, offset, length);
+                output.write(block.array(), 0, length * Double.BYTES);
+            }
+        }
+    }
+
+    public static double[][] readWeights(final DataInput input) throws IOException {
+        return readWeights(input, null);
+    }
+
+    public static double[][] readWeights(final DataInput input, final double[][] expectedShape) throws IOException {
+        final byte[] block = new byte[DOUBLES_PER_BLOCK * Double.BYTES];
+        final DoubleBuffer doubleBlock = ByteBuffer.wrap(block).asDoubleBuffer();
+        final int numberOfLayers = input.readInt();
+        if (expectedShape != null && numberOfLayers != expectedShape.length) {
+            throw new IOException("Number of layers doesn't match expected weights!");
+        }
+        final double[][] weights = new double[numberOfLayers][];
+        for (int i = 0; i < weights.length; ++i) {
+            final int numberOfWeights = input.readInt();
+            if (expectedShape != null && numberOfWeights != expectedShape[i].length) {
+                throw new IOException("Number of weights in layer doesn't match expected weights!");
+            }
+            weights[i] = new double[numberOfWeights];
+            for (int offset = 0; offset < weights[i].length; offset += DOUBLES_PER_BLOCK) {
+                final int length = Math.min(DOUBLES_PER_BLOCK, weights[i].length - offset);
+                input.readFully(block, 0, length * Double.BYTES);
+                doubleBlock.clear();
+                doubleBlock.get(weights[i], offset, length);
+            }
+        }
+        return weights;
+    }
+
+    public static double[][] subtractWeights(final double[][] minuend, final double[][] subtrahend) {
+        final double[][] difference = new double[minuend.length][];
+        for (int i = 0; i < minuend.length; ++i) {
+            difference[i] = new double[minuend[i].length];
+            for (int j = 0; j < minuend[i].length; ++j) {
+                difference[i][j] = minuend[i][j] - subtrahend[i][j];
+            }
+        }
+        return difference;
+    }
+
+    public static void addScaledWeights(final double[][] target, final double[][] addend, final double scale) {
+        for (int i = 0; i < target.length; ++i) {
+            for (int j = 0; j < target[i].length; ++j) {
+                target[i][j] += addend[i][j] * scale;
+            }
+        }
+    }
+
+    public static double[][] copyWeights(final double[][] weights) {
+        final double[][] copy = new double[weights.length][];
+        for (int i = 0; i < weights.length; ++i) {
+            copy[i] = weights[i].clone();
+        }
+        return copy;
+    }
+
+}
@@ -0,0 +1,313 @@
+package neuralnetwork.inference;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import neuralnetwork.NeuralNetwork;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * HTTP server calculating Neural Network responses in micro-batches. <br>
+ * <br>
+ * Incoming requests are queued and coalesced into batches of at most maximum
+ * batch size, waiting at most maximum wait time for batch to fill up. Each
+ * batch is calculated using
+ * {@link NeuralNetwork#calculateResponses(List)}, trading small increase in
+ * latency for higher throughput under load. HTTP request threads don't wait
+ * for responses, so batch can hold more requests than there are request
+ * threads. <br>
+ * <br>
+ * Endpoints: <br>
+ * {@code POST /predict} - body contains comma-separated input vector, response
+ * contains comma-separated output vector. <br>
+ * {@code GET /metrics} - latency percentiles and batch sizes histogram.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetwork
+ */
+public class InferenceServer implements Closeable {
+
+    private static final int QUEUE_CAPACITY_PER_BATCH = 64;
+    private static final int LATENCY_RECORDER_CAPACITY = 100_000;
+    private static final int STOP_DELAY_SECONDS = 1;
+    private final NeuralNetwork neuralNetwork;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingRequest> queue;
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder(LATENCY_RECORDER_CAPACITY);
+    private final AtomicLongArray batchSizes;
+    private final HttpServer httpServer;
+    private final ExecutorService requestExecutor;
+    private final Thread batchingThread;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructor. Starts HTTP server listening on given port of loopback
+     * address, so it can't be reached from other machines. Neural Network
+     * shouldn't be used anywhere else while server is running.
+     *
+     * @param neuralNetwork  Neural Network used to calculate responses.
+     * @param port           port to listen on, zero for any free port.
+     * @param maxBatchSize   maximum number of requests calculated in single batch.
+     * @param maxWait        maximum time first request in batch waits for batch to
+     *                       fill up.
+     * @param requestThreads number of threads handling HTTP requests.
+     * @throws IOException I/O error occurred when opening the socket.
+     */
+    public InferenceServer(final NeuralNetwork neuralNetwork, final int port, final int maxBatchSize,
+            final Duration maxWait, final int requestThreads) throws IOException {
+        this(neuralNetwork, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxBatchSize, maxWait,
+                requestThreads);
+    }
+
+    /**
+     * Constructor. Starts HTTP server listening on given address, e.g. address
+     * reachable from other machines. Server doesn't authenticate requests.
+     *
+     * @param neuralNetwork  Neural Network used to calculate responses.
+     * @param address        address and port to listen on.
+     * @param maxBatchSize   maximum number of requests calculated in single batch.
+     * @param maxWait        maximum time first request in batch waits for batch to
+     *                       fill up.
+     * @param requestThreads number of threads handling HTTP requests.
+     * @throws IOException I/O error occurred when opening the socket.
+     */
+    public InferenceServer(final NeuralNetwork neuralNetwork, final InetSocketAddress address,
+            final int maxBatchSize, final Duration maxWait, final int requestThreads) throws IOException {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Maximum batch size has to be positive!");
+        }
+        this.neuralNetwork = neuralNetwork;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(maxBatchSize * QUEUE_CAPACITY_PER_BATCH);
+        this.batchSizes = new AtomicLongArray(maxBatchSize + 1);
+        this.batchingThread = new Thread(this::calculateBatches, "inference-batching");
+        batchingThread.setDaemon(true);
+        batchingThread.start();
+        this.requestExecutor = Executors.newFixedThreadPool(requestThreads);
+        this.httpServer = HttpServer.create(address, 0);
+        httpServer.createContext("/predict", this::handlePredict);
+        httpServer.createContext("/metrics", this::handleMetrics);
+        httpServer.setExecutor(requestExecutor);
+        httpServer.start();
+    }
+
+    /**
+     * Returns port the server is listening on.
+     *
+     * @return port the server is listening on.
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Queues input vector to be calculated in next batch. Inputs size has to match
+     * network inputs size, otherwise {@link IllegalArgumentException} is thrown.
+     * If queue is full or server is closed, {@link RejectedExecutionException}
+     * is thrown.
+     *
+     * @param inputs list consisting of input values as doubles (input vector)
+     * @return future completed with network response for given inputs.
+     */
+    public CompletableFuture<List<Double>> submit(final List<Double> inputs) {
+        if (inputs.size() != neuralNetwork.getNumberOfInputs()) {
+            throw new IllegalArgumentException("Number of network inputs and passed number of inputs doesn't match!");
+        }
+        if (closed) {
+            throw new RejectedExecutionException("Server closed!");
+        }
+        final PendingRequest request = new PendingRequest(inputs);
+        if (!queue.offer(request)) {
+            throw new RejectedExecutionException("Too many pending requests!");
+        }
+        if (closed && queue.remove(request)) {
+            request.response.completeExceptionally(new RejectedExecutionException("Server closed!"));
+        }
+        return request.response;
+    }
+
+    /**
+     * Returns latency recorder with latencies of calculated requests, measured
+     * from queueing the request until its batch is calculated.
+     *
+     * @return latency recorder.
+     */
+    public LatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    /**
+     * Returns histogram of calculated batch sizes - element at given index is
+     * number of batches of that size.
+     *
+     * @return histogram of batch sizes.
+     */
+    public long[] getBatchSizesHistogram() {
+        final long[] histogram = new long[batchSizes.length()];
+        Arrays.setAll(histogram, batchSizes::get);
+        return histogram;
+    }
+
+    /**
+     * Stops batching and HTTP server. Requests waiting for their batch are
+     * completed exceptionally and further requests are rejected. HTTP clients
+     * waiting for responses are answered before request threads are stopped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        batchingThread.interrupt();
+        final List<PendingRequest> pendingRequests = new ArrayList<>();
+        queue.drainTo(pendingRequests);
+        pendingRequests.forEach(request -> request.response
+                .completeExceptionally(new RejectedExecutionException("Server closed!")));
+        httpServer.stop(STOP_DELAY_SECONDS);
+        requestExecutor.shutdownNow();
+    }
+
+    private void calculateBatches() {
+        final List<PendingRequest> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final PendingRequest firstRequest = queue.take();
+                batch.add(firstRequest);
+                final long deadline = firstRequest.queuedNanos + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) == 0) {
+                        final PendingRequest request = queue.poll(deadline - System.nanoTime(),
+                                TimeUnit.NANOSECONDS);
+                        if (request == null) {
+                            break;
+                        }
+                        batch.add(request);
+                    }
+                }
+                calculateBatch(batch);
+                batch.clear();
+            }
+        } catch (final InterruptedException exception) {
+            batch.forEach(request -> request.response
+                    .completeExceptionally(new RejectedExecutionException("Server closed!")));
+        }
+    }
+
+    private void calculateBatch(final List<PendingRequest> batch) {
+        try {
+            final List<List<Double>> responses = neuralNetwork
+                    .calculateResponses(batch.stream().map(request -> request.inputs).collect(toList()));
+            final long calculatedNanos = System.nanoTime();
+            batchSizes.incrementAndGet(batch.size());
+            for (int i = 0; i < batch.size(); ++i) {
+                latencyRecorder.record(calculatedNanos - batch.get(i).queuedNanos);
+                batch.get(i).response.complete(responses.get(i));
+            }
+        } catch (final RuntimeException exception) {
+            batch.forEach(request -> request.response.completeExceptionally(exception));
+        }
+    }
+
+    private void handlePredict(final HttpExchange exchange) throws IOException {
+        final CompletableFuture<List<Double>> response;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendResponse(exchange, 405, "Only POST is supported");
+                exchange.close();
+                return;
+            }
+            final String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            response = submit(Arrays.stream(body.trim().split("\\s*,\\s*")).map(Double::valueOf).collect(toList()));
+        } catch (final IllegalArgumentException exception) {
+            sendResponse(exchange, 400, exception.getMessage());
+            exchange.close();
+            return;
+        } catch (final RejectedExecutionException exception) {
+            sendResponse(exchange, 503, exception.getMessage());
+            exchange.close();
+            return;
+        }
+        response.whenCompleteAsync((outputs, throwable) -> {
+            try {
+                if (throwable == null) {
+                    sendResponse(exchange, 200, outputs.stream().map(String::valueOf).collect(joining(",")));
+                } else {
+                    final Throwable cause = throwable instanceof CompletionException ? throwable.getCause()
+                            : throwable;
+                    sendResponse(exchange, cause instanceof RejectedExecutionException ? 503 : 500,
+                            String.valueOf(cause.getMessage()));
+                }
+            } catch (final IOException exception) {
+                throw new UncheckedIOException(exception);
+            } finally {
+                exchange.close();
+            }
+        }, requestExecutor);
+    }
+
+    private void handleMetrics(final HttpExchange exchange) throws IOException {
+        try {
+            final long[] latencies = latencyRecorder.percentiles(50, 90, 99, 99.9);
+            final StringBuilder metrics = new StringBuilder();
+            metrics.append(String.format("requests=%d%n", latencyRecorder.count()));
+            metrics.append(String.format("latency_p50_us=%d%nlatency_p90_us=%d%n", latencies[0] / 1000,
+                    latencies[1] / 1000));
+            metrics.append(String.format("latency_p99_us=%d%nlatency_p999_us=%d%n", latencies[2] / 1000,
+                    latencies[3] / 1000));
+            final long[] histogram = getBatchSizesHistogram();
+            for (int size = 1; size < histogram.length; ++size) {
+                if (histogram[size] > 0) {
+                    metrics.append(String.format("batch_size_%d=%d%n", size, histogram[size]));
+                }
+            }
+            sendResponse(exchange, 200, metrics.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sendResponse(final HttpExchange exchange, final int status, final String body)
+            throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    private static class PendingRequest {
+
+        private final List<Double> inputs;
+        private final long queuedNanos = System.nanoTime();
+        private final CompletableFuture<List<Double>> response = new CompletableFuture<>();
+
+        private PendingRequest(final List<Double> inputs) {
+            this.inputs = inputs;
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package neuralnetwork.inference;
+
+import java.util.Arrays;
+
+/**
+ * Thread-safe recorder of latencies. <br>
+ * <br>
+ * Keeps only specified number of most recent latencies, so memory used by
+ * recorder doesn't grow over time. Percentiles are calculated from kept
+ * latencies.
+ *
+ * @author Paweł Rutkowski S18277
+ */
+public class LatencyRecorder {
+
+    private final long[] latencies;
+    private long numberOfRecordedLatencies = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity number of most recent latencies to keep.
+     */
+    public LatencyRecorder(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity has to be positive!");
+        }
+        this.latencies = new long[capacity];
+    }
+
+    /**
+     * Records single latency.
+     *
+     * @param latencyNanos latency in nanoseconds.
+     */
+    public synchronized void record(final long latencyNanos) {
+        latencies[(int) (numberOfRecordedLatencies++ % latencies.length)] = latencyNanos;
+    }
+
+    /**
+     * Returns number of all latencies recorded so far, including ones which are
+     * no longer kept.
+     *
+     * @return number of recorded latencies.
+     */
+    public synchronized long count() {
+        return numberOfRecordedLatencies;
+    }
+
+    /**
+     * Returns number of recorded latencies which are no longer kept, because
+     * they were overwritten by more recent ones. Percentiles don't include them.
+     *
+     * @return number of dropped latencies.
+     */
+    public synchronized long dropped() {
+        return Math.max(0, numberOfRecordedLatencies - latencies.length);
+    }
+
+    /**
+     * Calculates given percentile of kept latencies, e.g. 50 for median or 99.9.
+     *
+     * @param percentile percentile between 0 and 100.
+     * @return latency in nanoseconds at given percentile, zero if nothing was
+     *         recorded.
+     */
+    public long percentile(final double percentile) {
+        return percentiles(percentile)[0];
+    }
+
+    /**
+     * Calculates multiple percentiles of kept latencies at once.
+     *
+     * @param percentiles percentiles between 0 and 100.
+     * @return latencies in nanoseconds at given percentiles, zeros if nothing was
+     *         recorded.
+     */
+    public long[] percentiles(final double... percentiles) {
+        final long[] sortedLatencies;
+        synchronized (this) {
+            sortedLatencies = Arrays.copyOf(latencies, (int) Math.min(numberOfRecordedLatencies, latencies.length));
+        }
+        Arrays.sort(sortedLatencies);
+        return Arrays.stream(percentiles).mapToLong(percentile -> {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile has to be between 0 and 100!");
+            }
+            if (sortedLatencies.length == 0) {
+                return 0L;
+            }
+            final int rank = (int) Math.ceil(percentile * sortedLatencies.length / 100D);
+            return sortedLatencies[Math.max(rank - 1, 0)];
+        }).toArray();
+    }
+
+}
@@ -0,0 +1,372 @@
+package neuralnetwork.inference;
+
+import neuralnetwork.NeuralNetwork;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Load generator measuring latency and throughput of Neural Network under
+ * concurrent requests. <br>
+ * <br>
+ * Each request calculates responses for batch of random input vectors using
+ * {@link NeuralNetwork#calculateResponses(List)}, also for batch of single
+ * vector, so results for different batch sizes can be compared. With
+ * request rate set, requests are sent at fixed rate regardless of how fast
+ * previous ones complete (open loop) and latency is measured from time request
+ * was scheduled, so queueing delay is included. Without request rate, each
+ * thread sends next request as soon as previous one completes (closed loop).
+ * Requests can be handled by platform threads or, on JDK 21 and newer, by
+ * virtual threads. Latencies of all requests sent at fixed rate are kept, while
+ * closed loop keeps only most recent ones and reports how many were dropped.
+ * Test can be also run from command line on saved network, see
+ * {@link LoadTest#main(String[])}.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see LoadTestResult
+ */
+public class LoadTest {
+
+    private static final double[] PERCENTILES = { 50, 99, 99.9 };
+    private static final int LATENCY_RECORDER_CAPACITY = 1 << 20;
+    private static final int MAXIMUM_LATENCY_RECORDER_CAPACITY = 1 << 23;
+    private static final int NUMBER_OF_PREPARED_BATCHES = 256;
+    private final NeuralNetwork neuralNetwork;
+    private double requestRate = 0D;
+    private int concurrency = 1;
+    private boolean virtualThreads = false;
+    private int batchSize = 1;
+    private Duration duration = Duration.ofSeconds(10);
+    private Duration warmUp = Duration.ofSeconds(2);
+    private long seed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * Constructor.
+     *
+     * @param neuralNetwork Neural Network to test.
+     */
+    public LoadTest(final NeuralNetwork neuralNetwork) {
+        this.neuralNetwork = neuralNetwork;
+    }
+
+    /**
+     * Runs load test from command line on network saved to file using Object
+     * Streams, e.g. by {@link neuralnetwork.NeuralNetworkTrainer#saveNeuralNetworkToFile(String)}.
+     * First argument is name of file, following ones are optional settings:
+     * {@code rate=} requests per second (0 for closed loop), {@code concurrency=}
+     * number of threads, {@code threads=platform|virtual}, {@code batch=} batch
+     * size, {@code duration=} and {@code warmup=} in seconds and {@code output=}
+     * name of file which result is appended to. Result is printed as JSON.
+     *
+     * @param args name of file with saved network followed by settings
+     * @throws IOException            if network can't be read or result can't be
+     *                                written
+     * @throws ClassNotFoundException if class of saved object can't be found
+     * @throws InterruptedException   if interrupted while waiting for requests
+     */
+    public static void main(final String[] args) throws IOException, ClassNotFoundException, InterruptedException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Name of file with saved network is required!");
+        }
+        final NeuralNetwork neuralNetwork;
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(args[0]))) {
+            neuralNetwork = (NeuralNetwork) objectInputStream.readObject();
+        }
+        final LoadTest loadTest = new LoadTest(neuralNetwork);
+        String output = null;
+        for (final String argument : Arrays.copyOfRange(args, 1, args.length)) {
+            final String[] setting = argument.split("=", 2);
+            if (setting.length != 2) {
+                throw new IllegalArgumentException("Settings have to be in form name=value!");
+            }
+            switch (setting[0]) {
+            case "rate":
+                loadTest.setRequestRate(Double.parseDouble(setting[1]));
+                break;
+            case "concurrency":
+                loadTest.setConcurrency(Integer.parseInt(setting[1]));
+                break;
+            case "threads":
+                loadTest.setVirtualThreads("virtual".equals(setting[1]));
+                break;
+            case "batch":
+                loadTest.setBatchSize(Integer.parseInt(setting[1]));
+                break;
+            case "duration":
+                loadTest.setDuration(Duration.ofMillis((long) (Double.parseDouble(setting[1]) * 1000)));
+                break;
+            case "warmup":
+                loadTest.setWarmUp(Duration.ofMillis((long) (Double.parseDouble(setting[1]) * 1000)));
+                break;
+            case "output":
+                output = setting[1];
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown setting " + setting[0] + "!");
+            }
+        }
+        final String result = loadTest.run().toJson();
+        System.out.println(result);
+        if (output != null) {
+            Files.write(Paths.get(output), List.of(result), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Setter for number of requests sent per second. Zero, which is default,
+     * makes each thread send next request as soon as previous one completes.
+     *
+     * @param requestRate number of requests per second.
+     */
+    public void setRequestRate(final double requestRate) {
+        if (requestRate < 0D) {
+            throw new IllegalArgumentException("Request rate can't be negative!");
+        }
+        this.requestRate = requestRate;
+    }
+
+    /**
+     * Setter for number of threads sending requests in closed loop or handling
+     * requests sent at fixed rate by platform threads. Virtual threads handling
+     * requests sent at fixed rate are not limited.
+     *
+     * @param concurrency number of threads.
+     */
+    public void setConcurrency(final int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency has to be positive!");
+        }
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Setter for kind of threads handling requests. Virtual threads require JDK
+     * 21 or newer, otherwise {@link UnsupportedOperationException} is thrown when
+     * test is run.
+     *
+     * @param virtualThreads whether requests should be handled by virtual threads
+     *                       instead of platform threads.
+     */
+    public void setVirtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Setter for number of input vectors in each request.
+     *
+     * @param batchSize number of input vectors in each request.
+     */
+    public void setBatchSize(final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size has to be positive!");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Setter for duration of measured part of test.
+     *
+     * @param duration duration of test.
+     */
+    public void setDuration(final Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration has to be positive!");
+        }
+        this.duration = duration;
+    }
+
+    /**
+     * Setter for duration of warm-up preceding measured part of test, giving JIT
+     * compiler time to optimize code. Requests sent during warm-up are not
+     * measured.
+     *
+     * @param warmUp duration of warm-up, can be zero.
+     */
+    public void setWarmUp(final Duration warmUp) {
+        if (warmUp.isNegative()) {
+            throw new IllegalArgumentException("Duration of warm-up can't be negative!");
+        }
+        this.warmUp = warmUp;
+    }
+
+    /**
+     * Setter for seed of random number generator used for input vectors, so test
+     * can be repeated with the same inputs.
+     *
+     * @param seed seed used for input vectors.
+     */
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Runs warm-up followed by measured part of test.
+     *
+     * @return result of measured part of test.
+     * @throws InterruptedException if interrupted while waiting for requests
+     */
+    public LoadTestResult run() throws InterruptedException {
+        final List<List<List<Double>>> batches = prepareBatches();
+        if (!warmUp.isZero()) {
+            runPhase(batches, warmUp.toNanos(), createLatencyRecorder(warmUp), new LongAdder(), null);
+        }
+        final LatencyRecorder latencyRecorder = createLatencyRecorder(duration);
+        final LongAdder errors = new LongAdder();
+        final long[] gcBefore = measureGarbageCollections();
+        final long[] allocatedBytes = { -1 };
+        final long durationNanos = runPhase(batches, duration.toNanos(), latencyRecorder, errors, allocatedBytes);
+        final long[] gcAfter = measureGarbageCollections();
+        return new LoadTestResult(virtualThreads ? "virtual" : "platform", concurrency, requestRate, batchSize,
+                latencyRecorder.count(), errors.sum(), durationNanos, latencyRecorder.percentiles(PERCENTILES),
+                latencyRecorder.dropped(), allocatedBytes[0], gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+    }
+
+    private List<List<List<Double>>> prepareBatches() {
+        final Random random = new Random(seed);
+        final int numberOfInputs = neuralNetwork.getNumberOfInputs();
+        return Stream.generate(() -> Stream
+                .generate(() -> random.doubles(numberOfInputs).boxed().collect(toList())).limit(batchSize)
+                .collect(toList())).limit(NUMBER_OF_PREPARED_BATCHES).collect(toList());
+    }
+
+    private LatencyRecorder createLatencyRecorder(final Duration phaseDuration) {
+        if (requestRate == 0D) {
+            return new LatencyRecorder(LATENCY_RECORDER_CAPACITY);
+        }
+        final double numberOfRequests = Math.ceil(requestRate * phaseDuration.toNanos() / 1e9);
+        return new LatencyRecorder((int) Math.max(1, Math.min(MAXIMUM_LATENCY_RECORDER_CAPACITY, numberOfRequests)));
+    }
+
+    private long runPhase(final List<List<List<Double>>> batches, final long durationNanos,
+            final LatencyRecorder latencyRecorder, final LongAdder errors, final long[] allocatedBytes)
+            throws InterruptedException {
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        final ExecutorService executor = createExecutor(threads);
+        final LongAdder completedRequests = new LongAdder();
+        final long startTime = System.nanoTime();
+        final long endTime = startTime + durationNanos;
+        long submittedRequests = 0;
+        try {
+            if (requestRate > 0D) {
+                final double intervalNanos = 1e9 / requestRate;
+                for (long request = 0;; ++request) {
+                    final long scheduledTime = startTime + (long) (request * intervalNanos);
+                    if (scheduledTime >= endTime) {
+                        break;
+                    }
+                    for (long delay = scheduledTime - System.nanoTime(); delay > 0; delay = scheduledTime
+                            - System.nanoTime()) {
+                        LockSupport.parkNanos(delay);
+                    }
+                    final List<List<Double>> batch = batches.get((int) (request % batches.size()));
+                    executor.execute(() -> {
+                        try {
+                            calculateResponses(batch, errors);
+                            latencyRecorder.record(System.nanoTime() - scheduledTime);
+                        } finally {
+                            completedRequests.increment();
+                        }
+                    });
+                    ++submittedRequests;
+                }
+            } else {
+                submittedRequests = concurrency;
+                IntStream.range(0, concurrency).forEach(thread -> executor.execute(() -> {
+                    try {
+                        for (int request = thread; System.nanoTime() < endTime; request += concurrency) {
+                            final long requestStartTime = System.nanoTime();
+                            calculateResponses(batches.get(request % batches.size()), errors);
+                            latencyRecorder.record(System.nanoTime() - requestStartTime);
+                        }
+                    } finally {
+                        completedRequests.increment();
+                    }
+                }));
+            }
+            while (completedRequests.sum() < submittedRequests) {
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+            final long elapsedNanos = System.nanoTime() - startTime;
+            if (allocatedBytes != null) {
+                allocatedBytes[0] = virtualThreads ? -1 : measureAllocatedBytes(threads);
+            }
+            return elapsedNanos;
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void calculateResponses(final List<List<Double>> batch, final LongAdder errors) {
+        try {
+            neuralNetwork.calculateResponses(batch);
+        } catch (final RuntimeException exception) {
+            errors.increment();
+        }
+    }
+
+    private ExecutorService createExecutor(final List<Thread> threads) {
+        if (!virtualThreads) {
+            return Executors.newFixedThreadPool(concurrency, runnable -> {
+                final Thread thread = new Thread(runnable, "load-test");
+                threads.add(thread);
+                return thread;
+            });
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException exception) {
+            throw new UnsupportedOperationException("Virtual threads require JDK 21 or newer!", exception);
+        }
+    }
+
+    private static long measureAllocatedBytes(final List<Thread> threads) {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!allocationMXBean.isThreadAllocatedMemorySupported()
+                || !allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return Arrays.stream(allocationMXBean
+                .getThreadAllocatedBytes(threads.stream().mapToLong(Thread::getId).toArray()))
+                .filter(bytes -> bytes > 0).sum();
+    }
+
+    private static long[] measureGarbageCollections() {
+        final long[] garbageCollections = new long[2];
+        for (final GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            garbageCollections[0] += Math.max(0, garbageCollectorMXBean.getCollectionTime());
+            garbageCollections[1] += Math.max(0, garbageCollectorMXBean.getCollectionCount());
+        }
+        return garbageCollections;
+    }
+
+}
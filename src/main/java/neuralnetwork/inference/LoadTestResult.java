@@ -0,0 +1,181 @@
+package neuralnetwork.inference;
+
+import java.util.Locale;
+
+/**
+ * Result of single run of {@link LoadTest}.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see LoadTest
+ */
+public class LoadTestResult {
+
+    private final String threads;
+    private final int concurrency;
+    private final double requestRate;
+    private final int batchSize;
+    private final long numberOfRequests;
+    private final long numberOfErrors;
+    private final long durationNanos;
+    private final long[] latencyPercentilesNanos;
+    private final long numberOfDroppedLatencies;
+    private final long allocatedBytes;
+    private final long gcTimeMillis;
+    private final long gcCount;
+
+    LoadTestResult(final String threads, final int concurrency, final double requestRate, final int batchSize,
+            final long numberOfRequests, final long numberOfErrors, final long durationNanos,
+            final long[] latencyPercentilesNanos, final long numberOfDroppedLatencies, final long allocatedBytes,
+            final long gcTimeMillis, final long gcCount) {
+        this.threads = threads;
+        this.concurrency = concurrency;
+        this.requestRate = requestRate;
+        this.batchSize = batchSize;
+        this.numberOfRequests = numberOfRequests;
+        this.numberOfErrors = numberOfErrors;
+        this.durationNanos = durationNanos;
+        this.latencyPercentilesNanos = latencyPercentilesNanos.clone();
+        this.numberOfDroppedLatencies = numberOfDroppedLatencies;
+        this.allocatedBytes = allocatedBytes;
+        this.gcTimeMillis = gcTimeMillis;
+        this.gcCount = gcCount;
+    }
+
+    /**
+     * Returns number of completed requests, excluding warm-up.
+     *
+     * @return number of completed requests.
+     */
+    public long getNumberOfRequests() {
+        return numberOfRequests;
+    }
+
+    /**
+     * Returns number of requests which failed with exception.
+     *
+     * @return number of failed requests.
+     */
+    public long getNumberOfErrors() {
+        return numberOfErrors;
+    }
+
+    /**
+     * Returns number of completed requests per second.
+     *
+     * @return throughput in requests per second.
+     */
+    public double getRequestsPerSecond() {
+        return numberOfRequests * 1e9 / durationNanos;
+    }
+
+    /**
+     * Returns number of input vectors calculated per second.
+     *
+     * @return throughput in input vectors per second.
+     */
+    public double getSamplesPerSecond() {
+        return getRequestsPerSecond() * batchSize;
+    }
+
+    /**
+     * Returns median latency of requests.
+     *
+     * @return median latency in nanoseconds.
+     */
+    public long getP50Nanos() {
+        return latencyPercentilesNanos[0];
+    }
+
+    /**
+     * Returns 99th percentile of latency of requests.
+     *
+     * @return 99th percentile of latency in nanoseconds.
+     */
+    public long getP99Nanos() {
+        return latencyPercentilesNanos[1];
+    }
+
+    /**
+     * Returns 99.9th percentile of latency of requests.
+     *
+     * @return 99.9th percentile of latency in nanoseconds.
+     */
+    public long getP999Nanos() {
+        return latencyPercentilesNanos[2];
+    }
+
+    /**
+     * Returns number of requests which latencies were not included in
+     * percentiles, because there were too many of them to keep.
+     *
+     * @return number of dropped latencies.
+     */
+    public long getNumberOfDroppedLatencies() {
+        return numberOfDroppedLatencies;
+    }
+
+    /**
+     * Returns number of bytes allocated on heap by threads handling requests
+     * during test, or -1 if JVM doesn't support measuring it or requests were
+     * handled by virtual threads, which allocations aren't reported. Threads are
+     * created for measured part of test only, so their allocations don't include
+     * warm-up or other threads.
+     *
+     * @return number of allocated bytes.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns number of bytes allocated on heap per second, or -1 if number of
+     * allocated bytes wasn't measured.
+     *
+     * @return allocation rate in bytes per second.
+     */
+    public double getAllocationRate() {
+        return allocatedBytes < 0 ? -1D : allocatedBytes * 1e9 / durationNanos;
+    }
+
+    /**
+     * Returns total time of garbage collections during test.
+     *
+     * @return time of garbage collections in milliseconds.
+     */
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    /**
+     * Returns number of garbage collections during test.
+     *
+     * @return number of garbage collections.
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Returns result as single JSON object, so results of different runs can be
+     * compared by other tools.
+     *
+     * @return result in JSON format.
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT, "{\"javaVersion\":\"%s\",\"threads\":\"%s\",\"concurrency\":%d,"
+                + "\"requestRate\":%.1f,\"batchSize\":%d,\"requests\":%d,\"errors\":%d,\"durationSeconds\":%.3f,"
+                + "\"requestsPerSecond\":%.1f,\"samplesPerSecond\":%.1f,"
+                + "\"latencyNanos\":{\"p50\":%d,\"p99\":%d,\"p99.9\":%d},\"droppedLatencies\":%d,"
+                + "\"allocatedBytes\":%d,\"allocationRateBytesPerSecond\":%.1f,\"gcTimeMillis\":%d,\"gcCount\":%d}",
+                System.getProperty("java.version"), threads, concurrency, requestRate, batchSize, numberOfRequests,
+                numberOfErrors, durationNanos / 1e9, getRequestsPerSecond(), getSamplesPerSecond(), getP50Nanos(),
+                getP99Nanos(), getP999Nanos(), numberOfDroppedLatencies, allocatedBytes, getAllocationRate(),
+                gcTimeMillis, gcCount);
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+}
@@ -0,0 +1,181 @@
+package neuralnetwork.inference;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.ResponseCalculator;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache of Neural Network responses for repeated input vectors. <br>
+ * <br>
+ * Keeps at most maximum size of responses, evicting least recently used ones.
+ * Cache is cleared automatically when weights of the network change, e.g. by
+ * training, or when supplier returns different network, e.g. after
+ * {@link neuralnetwork.NeuralNetworkTrainer#restoreNeuralNetwork()}.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see NeuralNetwork#getWeightsVersion()
+ */
+public class ResponseCache implements ResponseCalculator {
+
+    private final Supplier<NeuralNetwork> neuralNetworkSupplier;
+    private final Map<InputVector, List<Double>> responses;
+    private NeuralNetwork cachedNeuralNetwork;
+    private long cachedWeightsVersion;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Constructor caching responses of given network.
+     *
+     * @param neuralNetwork Neural Network used to calculate responses.
+     * @param maxSize       maximum number of cached responses.
+     */
+    public ResponseCache(final NeuralNetwork neuralNetwork, final int maxSize) {
+        this(() -> neuralNetwork, maxSize);
+    }
+
+    /**
+     * Constructor caching responses of network returned by supplier, e.g.
+     * {@code trainer::getNeuralNetwork}.
+     *
+     * @param neuralNetworkSupplier supplier of Neural Network used to calculate
+     *                              responses.
+     * @param maxSize               maximum number of cached responses.
+     */
+    public ResponseCache(final Supplier<NeuralNetwork> neuralNetworkSupplier, final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Maximum size has to be positive!");
+        }
+        this.neuralNetworkSupplier = neuralNetworkSupplier;
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 4301457826306389472L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<InputVector, List<Double>> eldest) {
+                if (size() > maxSize) {
+                    ++evictions;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns cached network response for given inputs or calculates and caches it
+     * using {@link NeuralNetwork#calculateResponse(List)}. Response is calculated
+     * without holding the cache, so other threads can get cached responses in the
+     * meantime. Response is cached only if weights didn't change while it was
+     * calculated.
+     *
+     * @param inputs list consisting of input values as doubles (input vector)
+     * @return list consisting of responses of each output layer neuron (output
+     *         vector)
+     */
+    @Override
+    public List<Double> calculateResponse(final List<Double> inputs) {
+        final NeuralNetwork neuralNetwork = neuralNetworkSupplier.get();
+        final long weightsVersion = neuralNetwork.getWeightsVersion();
+        final InputVector inputVector = new InputVector(inputs);
+        synchronized (this) {
+            if (neuralNetwork != cachedNeuralNetwork || weightsVersion > cachedWeightsVersion) {
+                responses.clear();
+                cachedNeuralNetwork = neuralNetwork;
+                cachedWeightsVersion = weightsVersion;
+            }
+            final List<Double> cachedResponse = weightsVersion == cachedWeightsVersion ? responses.get(inputVector)
+                    : null;
+            if (cachedResponse != null) {
+                ++hits;
+                return cachedResponse;
+            }
+            ++misses;
+        }
+        final List<Double> response = List.copyOf(neuralNetwork.calculateResponse(inputs));
+        synchronized (this) {
+            if (neuralNetwork == cachedNeuralNetwork && weightsVersion == cachedWeightsVersion
+                    && weightsVersion == neuralNetwork.getWeightsVersion()) {
+                responses.put(inputVector, response);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public synchronized void invalidate() {
+        responses.clear();
+    }
+
+    /**
+     * Returns number of cached responses.
+     *
+     * @return number of cached responses.
+     */
+    public synchronized int size() {
+        return responses.size();
+    }
+
+    /**
+     * Returns number of responses returned from cache.
+     *
+     * @return number of cache hits.
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Returns number of responses calculated by the network.
+     *
+     * @return number of cache misses.
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Returns number of responses evicted because cache was full.
+     *
+     * @return number of evictions.
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    private static final class InputVector {
+
+        private final double[] values;
+        private final int hash;
+
+        private InputVector(final List<Double> inputs) {
+            values = new double[inputs.size()];
+            long hash = 0;
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = inputs.get(i);
+                hash = (hash ^ Double.doubleToLongBits(values[i])) * 0x9E3779B97F4A7C15L;
+            }
+            this.hash = (int) (hash ^ (hash >>> 32));
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof InputVector && hash == ((InputVector) other).hash
+                    && Arrays.equals(values, ((InputVector) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
@@ -0,0 +1,9 @@
+/**
+ * Package storing classes for serving Neural Network responses, e.g. over HTTP,
+ * and measuring their latency.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see neuralnetwork.NeuralNetwork
+ */
+
+package neuralnetwork.inference;
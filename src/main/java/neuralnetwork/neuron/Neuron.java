@@ -1,10 +1,9 @@
 package neuralnetwork.neuron;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import neuralnetwork.helpers.MathOperations;
 
@@ -13,41 +12,96 @@ import neuralnetwork.helpers.MathOperations;
  * <br>
  * Keeps information about previous neurons with weights assigned to their
  * connections. Keeps information about next neurons for backpropagating errors.
+ * <br>
+ * <br>
+ * Weights are stored in row of buffer which can be shared by entire layer -
+ * weights of connections with previous neurons in their order, followed by
+ * bias.
  *
  * @author Paweł Rutkowski S18277
  * @see nai.neuralnetwork.NeuralNetwork
  */
 public class Neuron implements ResponseProvider, Serializable {
 
-    private static final long serialVersionUID = -6752725139822282832L;
+    private static final long serialVersionUID = 3160417215874939316L;
     private static final double INITIAL_WEIGHT_ORIGIN = -0.1;
     private static final double INITIAL_WEIGHT_BOUND = 0.1;
-    private final Map<ResponseProvider, Double> previousNeurons = new LinkedHashMap<>();
-    private final List<Neuron> nextNeurons = new ArrayList<>();
-    private double bias = MathOperations.randomValueBetween(INITIAL_WEIGHT_ORIGIN, INITIAL_WEIGHT_BOUND);
+    private PreviousLayer previousNeurons = new PreviousLayer(List.of());
+    private List<Neuron> nextNeurons = List.of();
+    private WeightBuffer weights = WeightBuffer.wrap(new double[1]);
+    private int weightsOffset = 0;
     private transient double response = 0D;
     private transient double error = 0D;
 
     /**
-     * Configures map of previous errors based on passed list of neurons setting
-     * their initial weights to random value between values defined by
+     * Configures previous layer based on passed list of neurons setting initial
+     * weights of connections and bias to random value between values defined by
      * {@link Neuron#INITIAL_WEIGHT_BOUND} and {@link Neuron#INITIAL_WEIGHT_ORIGIN}.
      *
      * @param neurons list of neurons in previous layer of the network
      */
     public void configurePreviousNeurons(final List<ResponseProvider> neurons) {
-        neurons.forEach(
-                neuron -> previousNeurons.put(neuron, MathOperations.randomValueBetween(INITIAL_WEIGHT_ORIGIN, INITIAL_WEIGHT_BOUND)));
+        final double[] weights = new double[neurons.size() + 1];
+        Arrays.setAll(weights, i -> MathOperations.randomValueBetween(INITIAL_WEIGHT_ORIGIN, INITIAL_WEIGHT_BOUND));
+        configurePreviousNeurons(new PreviousLayer(neurons), weights, 0);
+    }
+
+    /**
+     * Configures previous layer of neurons using already initialized weights.
+     * Weights of connections with neurons in previous layer, followed by bias, are
+     * read from passed array starting at given offset. Array is not copied, so it
+     * can hold weights of all neurons in layer.
+     *
+     * @param neurons       previous layer of the network, can be shared between
+     *                      neurons
+     * @param weights       array holding weights of this neuron
+     * @param weightsOffset index of first weight of this neuron in array
+     */
+    public void configurePreviousNeurons(final PreviousLayer neurons, final double[] weights,
+            final int weightsOffset) {
+        configurePreviousNeurons(neurons, WeightBuffer.wrap(weights), weightsOffset);
+    }
+
+    /**
+     * Configures previous layer of neurons using already initialized weights kept
+     * in buffer, which can be shared by all neurons in layer and kept outside of
+     * heap.
+     *
+     * @param neurons       previous layer of the network, can be shared between
+     *                      neurons
+     * @param weights       buffer holding weights of this neuron
+     * @param weightsOffset index of first weight of this neuron in buffer
+     * @see Neuron#configurePreviousNeurons(PreviousLayer, double[], int)
+     */
+    public void configurePreviousNeurons(final PreviousLayer neurons, final WeightBuffer weights,
+            final int weightsOffset) {
+        if (weights.size() < weightsOffset + neurons.size() + 1) {
+            throw new IllegalArgumentException("Weights array is too short for number of previous neurons!");
+        }
+        this.previousNeurons = neurons;
+        this.weights = weights;
+        this.weightsOffset = weightsOffset;
+    }
+
+    /**
+     * Replaces buffer holding weights of this neuron, keeping previous layer. Used
+     * for moving weights of entire layer to different kind of storage.
+     *
+     * @param weights       buffer holding weights of this neuron
+     * @param weightsOffset index of first weight of this neuron in buffer
+     */
+    public void configureWeights(final WeightBuffer weights, final int weightsOffset) {
+        configurePreviousNeurons(previousNeurons, weights, weightsOffset);
     }
 
     /**
-     * Configures list of neurons in next layer of the network.
+     * Configures list of neurons in next layer of the network. List is not copied,
+     * so it can be shared between all neurons in layer.
      *
      * @param neurons list of neurons in next layer of the network
      */
     public void configureNextNeurons(final List<Neuron> neurons) {
-        nextNeurons.clear();
-        nextNeurons.addAll(neurons);
+        nextNeurons = Collections.unmodifiableList(neurons);
     }
 
     /**
@@ -56,9 +110,12 @@ public class Neuron implements ResponseProvider, Serializable {
      * Calculated response is assigned to {@link Neuron#response} field.
      */
     public void calculateResponse() {
-        final double response = previousNeurons.entrySet().stream()
-                .map(entry -> entry.getKey().getResponse() * entry.getValue()).mapToDouble(Double::valueOf).sum();
-        this.response = MathOperations.sigmoid(response + bias);
+        final int numberOfPreviousNeurons = previousNeurons.size();
+        double response = weights.get(weightsOffset + numberOfPreviousNeurons);
+        for (int i = 0; i < numberOfPreviousNeurons; ++i) {
+            response += previousNeurons.get(i).getResponse() * weights.get(weightsOffset + i);
+        }
+        this.response = MathOperations.sigmoid(response);
     }
 
     /**
@@ -72,13 +129,25 @@ public class Neuron implements ResponseProvider, Serializable {
         return response;
     }
 
+    /**
+     * Sets response calculated earlier instead of calculating it again, e.g.
+     * response of neuron which weights don't change restored from cache.
+     *
+     * @param response previously calculated response.
+     */
+    public void configureResponse(final double response) {
+        this.response = response;
+    }
+
     /**
      * Calculates this neuron's error based on errors from neurons in next layer and
      * weights associated with their connections.
      */
     public void calculateError() {
-        final double errorFromNextLayer = nextNeurons.stream().map(neuron -> neuron.getScaledError(this))
-                .mapToDouble(Double::valueOf).sum();
+        double errorFromNextLayer = 0D;
+        for (final Neuron neuron : nextNeurons) {
+            errorFromNextLayer += neuron.getScaledError(this);
+        }
         this.error = errorFromNextLayer * response * (1D - response);
     }
 
@@ -89,9 +158,12 @@ public class Neuron implements ResponseProvider, Serializable {
      * @param learningRate learning rate used for training.
      */
     public void adjustWeights(final double learningRate) {
-        previousNeurons.forEach((neuron, weight) -> previousNeurons.replace(neuron,
-                weight + (error * neuron.getResponse() * learningRate)));
-        bias += error * learningRate;
+        final int numberOfPreviousNeurons = previousNeurons.size();
+        final double scaledError = error * learningRate;
+        for (int i = 0; i < numberOfPreviousNeurons; ++i) {
+            weights.add(weightsOffset + i, scaledError * previousNeurons.get(i).getResponse());
+        }
+        weights.add(weightsOffset + numberOfPreviousNeurons, scaledError);
     }
 
     /**
@@ -111,7 +183,7 @@ public class Neuron implements ResponseProvider, Serializable {
      * @return scaled error for given neuron.
      */
     double getScaledError(final ResponseProvider neuron) {
-        return previousNeurons.get(neuron) * error;
+        return weights.get(weightsOffset + previousNeurons.positionOf(neuron)) * error;
     }
 
     /**
@@ -0,0 +1,68 @@
+package neuralnetwork.neuron;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Layer of neurons providing responses to neurons in next layer. <br>
+ * <br>
+ * Keeps neurons in fixed order together with their positions, so single
+ * instance can be shared between all neurons connected to this layer instead of
+ * each neuron keeping its own copy.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see Neuron
+ */
+public final class PreviousLayer implements Serializable {
+
+    private static final long serialVersionUID = 2853360254745010911L;
+    private final List<ResponseProvider> neurons;
+    private final Map<ResponseProvider, Integer> positions;
+
+    /**
+     * Creates layer consisting of given neurons in given order.
+     *
+     * @param neurons list of neurons in layer
+     */
+    public PreviousLayer(final List<? extends ResponseProvider> neurons) {
+        this.neurons = Collections.unmodifiableList(new ArrayList<>(neurons));
+        this.positions = new HashMap<>(2 * neurons.size());
+        for (int i = 0; i < neurons.size(); ++i) {
+            positions.put(neurons.get(i), i);
+        }
+    }
+
+    /**
+     * Returns number of neurons in layer.
+     *
+     * @return number of neurons in layer.
+     */
+    public int size() {
+        return neurons.size();
+    }
+
+    /**
+     * Returns neuron at given position.
+     *
+     * @param position position of neuron in layer
+     * @return neuron at given position.
+     */
+    public ResponseProvider get(final int position) {
+        return neurons.get(position);
+    }
+
+    /**
+     * Returns position of given neuron in layer.
+     *
+     * @param neuron neuron from this layer
+     * @return position of given neuron.
+     */
+    public int positionOf(final ResponseProvider neuron) {
+        return positions.get(neuron);
+    }
+
+}
@@ -0,0 +1,242 @@
+package neuralnetwork.neuron;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Fixed size buffer of weights, kept either in array on heap or in direct
+ * memory outside of heap. <br>
+ * <br>
+ * Weights kept outside of heap, including ones mapped from file, don't count
+ * towards heap size and are not scanned by garbage collector, so heap usage of
+ * network doesn't depend on number of its weights. Single buffer is usually
+ * shared by all neurons in layer. Serialized buffer keeps its kind, except
+ * buffer mapped from file which is deserialized as writable direct buffer.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see Neuron
+ */
+public final class WeightBuffer implements Serializable {
+
+    private static final long serialVersionUID = -1650271850446914527L;
+    private static final int DOUBLES_PER_BLOCK = 8192;
+    private transient DoubleBuffer buffer;
+
+    private WeightBuffer(final DoubleBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates buffer backed by given array. Array is not copied.
+     *
+     * @param weights array of weights
+     * @return buffer backed by given array.
+     */
+    public static WeightBuffer wrap(final double[] weights) {
+        return new WeightBuffer(DoubleBuffer.wrap(weights));
+    }
+
+    /**
+     * Creates buffer of zeros kept outside of heap. Buffer of more than
+     * {@code Integer.MAX_VALUE / Double.BYTES} weights causes
+     * {@link IllegalArgumentException}.
+     *
+     * @param size number of weights
+     * @return buffer kept outside of heap.
+     */
+    public static WeightBuffer allocateDirect(final int size) {
+        if (size > Integer.MAX_VALUE / Double.BYTES) {
+            throw new IllegalArgumentException("Number of weights exceeds maximum size of direct buffer!");
+        }
+        return new WeightBuffer(ByteBuffer.allocateDirect(size * Double.BYTES).order(ByteOrder.nativeOrder())
+                .asDoubleBuffer());
+    }
+
+    /**
+     * Creates buffer mapped from region of file containing weights as big-endian
+     * doubles, e.g. written by {@link WeightBuffer#write(DataOutput)}. Changes of
+     * weights are not written back to file. Channel has to be open for reading
+     * and writing.
+     *
+     * @param channel  channel of file containing weights
+     * @param position position of first weight in file
+     * @param size     number of weights
+     * @return buffer mapped from file.
+     * @throws IOException if file can't be mapped
+     */
+    public static WeightBuffer map(final FileChannel channel, final long position, final int size)
+            throws IOException {
+        return map(channel, position, size, false);
+    }
+
+    /**
+     * Creates buffer mapped from region of file containing weights as big-endian
+     * doubles. Read-only buffer requires channel open only for reading, but
+     * changing its weights throws {@link java.nio.ReadOnlyBufferException}.
+     * Writable buffer is mapped privately, so changes of weights are not written
+     * back to file, but channel has to be open for reading and writing.
+     *
+     * @param channel  channel of file containing weights
+     * @param position position of first weight in file
+     * @param size     number of weights
+     * @param readOnly whether weights can't be changed
+     * @return buffer mapped from file.
+     * @throws IOException if file can't be mapped
+     */
+    public static WeightBuffer map(final FileChannel channel, final long position, final int size,
+            final boolean readOnly) throws IOException {
+        final FileChannel.MapMode mapMode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.PRIVATE;
+        return new WeightBuffer(channel.map(mapMode, position, (long) size * Double.BYTES).asDoubleBuffer());
+    }
+
+    /**
+     * Returns number of weights.
+     *
+     * @return number of weights.
+     */
+    public int size() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns whether weights are kept outside of heap.
+     *
+     * @return true if weights are kept outside of heap.
+     */
+    public boolean isDirect() {
+        return buffer.isDirect();
+    }
+
+    /**
+     * Returns whether weights can't be changed, e.g. because they are mapped
+     * read-only from file.
+     *
+     * @return true if weights can't be changed.
+     */
+    public boolean isReadOnly() {
+        return buffer.isReadOnly();
+    }
+
+    /**
+     * Returns weight at given index.
+     *
+     * @param index index of weight
+     * @return weight at given index.
+     */
+    public double get(final int index) {
+        return buffer.get(index);
+    }
+
+    /**
+     * Sets weight at given index.
+     *
+     * @param index  index of weight
+     * @param weight new value of weight
+     */
+    public void set(final int index, final double weight) {
+        buffer.put(index, weight);
+    }
+
+    /**
+     * Adds given value to weight at given index.
+     *
+     * @param index index of weight
+     * @param value value added to weight
+     */
+    public void add(final int index, final double value) {
+        buffer.put(index, buffer.get(index) + value);
+    }
+
+    /**
+     * Returns copy of all weights.
+     *
+     * @return array of weights.
+     */
+    public double[] toArray() {
+        final double[] weights = new double[size()];
+        buffer.duplicate().clear().get(weights);
+        return weights;
+    }
+
+    /**
+     * Replaces all weights with given ones. Array of different size than buffer
+     * causes {@link IllegalArgumentException}.
+     *
+     * @param weights new weights
+     */
+    public void copyFrom(final double[] weights) {
+        if (weights.length != size()) {
+            throw new IllegalArgumentException("Number of weights doesn't match size of buffer!");
+        }
+        buffer.duplicate().clear().put(weights);
+    }
+
+    /**
+     * Replaces all weights with weights from given buffer. Buffer of different
+     * size causes {@link IllegalArgumentException}.
+     *
+     * @param weights buffer with new weights
+     */
+    public void copyFrom(final WeightBuffer weights) {
+        if (weights.size() != size()) {
+            throw new IllegalArgumentException("Number of weights doesn't match size of buffer!");
+        }
+        buffer.duplicate().clear().put(weights.buffer.duplicate().clear());
+    }
+
+    /**
+     * Writes all weights as big-endian doubles, without copying them to heap all
+     * at once.
+     *
+     * @param output output to write weights to
+     * @throws IOException if writing fails
+     */
+    public void write(final DataOutput output) throws IOException {
+        final ByteBuffer block = ByteBuffer.allocate(DOUBLES_PER_BLOCK * Double.BYTES);
+        final DoubleBuffer doubleBlock = block.asDoubleBuffer();
+        final DoubleBuffer weights = buffer.duplicate().clear();
+        while (weights.hasRemaining()) {
+            final int length = Math.min(DOUBLES_PER_BLOCK, weights.remaining());
+            doubleBlock.clear();
+            doubleBlock.put(weights.slice().limit(length));
+            weights.position(weights.position() + length);
+            output.write(block.array(), 0, length * Double.BYTES);
+        }
+    }
+
+    private void writeObject(final ObjectOutputStream objectOutputStream) throws IOException {
+        objectOutputStream.defaultWriteObject();
+        objectOutputStream.writeBoolean(isDirect());
+        if (isDirect()) {
+            objectOutputStream.writeInt(size());
+            write(objectOutputStream);
+        } else {
+            objectOutputStream.writeObject(buffer.array());
+        }
+    }
+
+    private void readObject(final ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+        objectInputStream.defaultReadObject();
+        if (objectInputStream.readBoolean()) {
+            buffer = allocateDirect(objectInputStream.readInt()).buffer;
+            final byte[] block = new byte[DOUBLES_PER_BLOCK * Double.BYTES];
+            final DoubleBuffer doubleBlock = ByteBuffer.wrap(block).asDoubleBuffer();
+            final DoubleBuffer weights = buffer.duplicate().clear();
+            while (weights.hasRemaining()) {
+                final int length = Math.min(DOUBLES_PER_BLOCK, weights.remaining());
+                objectInputStream.readFully(block, 0, length * Double.BYTES);
+                weights.put(doubleBlock.clear().limit(length));
+            }
+        } else {
+            buffer = DoubleBuffer.wrap((double[]) objectInputStream.readObject());
+        }
+    }
+
+}
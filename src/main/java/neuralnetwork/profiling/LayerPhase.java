@@ -0,0 +1,26 @@
+package neuralnetwork.profiling;
+
+/**
+ * Phases of calculations performed by each layer of Neural Network.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see LayerProfiler
+ */
+public enum LayerPhase {
+
+    /**
+     * Calculating responses of neurons based on responses of previous layer.
+     */
+    FORWARD,
+
+    /**
+     * Calculating errors of neurons based on errors of next layer.
+     */
+    ERROR_PROPAGATION,
+
+    /**
+     * Adjusting weights of neurons based on their errors.
+     */
+    WEIGHT_UPDATE
+
+}
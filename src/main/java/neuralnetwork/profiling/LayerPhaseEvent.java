@@ -0,0 +1,27 @@
+package neuralnetwork.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("neuralnetwork.LayerPhase")
+@Label("Layer Phase")
+@Category("Neural Network")
+@Description("Single phase of calculations performed by layer of Neural Network")
+@StackTrace(false)
+class LayerPhaseEvent extends Event {
+
+    @Label("Layer")
+    @Description("Index of layer, counting from layer closest to network inputs")
+    int layer;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Floating Point Operations")
+    long flops;
+
+}
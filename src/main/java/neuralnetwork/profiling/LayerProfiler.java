@@ -0,0 +1,112 @@
+package neuralnetwork.profiling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects time and number of floating point operations of each phase of each
+ * layer of Neural Network. <br>
+ * <br>
+ * Each measurement is also emitted as Java Flight Recorder event named
+ * {@code neuralnetwork.LayerPhase}, when such events are enabled in running
+ * recording. Network without profiler only checks whether profiler is set, so
+ * profiling costs almost nothing when disabled.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see neuralnetwork.NeuralNetwork#setProfiler(LayerProfiler)
+ */
+public class LayerProfiler {
+
+    private static final int COUNT = 0;
+    private static final int NANOS = 1;
+    private static final int FLOPS = 2;
+    private final List<long[][]> statistics = new ArrayList<>();
+
+    /**
+     * Starts measuring given phase of given layer.
+     *
+     * @param layer index of layer, counting from layer closest to network inputs
+     * @param phase measured phase
+     * @return measurement which should be stopped once phase is finished.
+     */
+    public Measurement start(final int layer, final LayerPhase phase) {
+        return new Measurement(this, layer, phase);
+    }
+
+    /**
+     * Returns statistics of all measured phases of all layers, ordered by layer
+     * and phase.
+     *
+     * @return list of statistics.
+     */
+    public synchronized List<LayerStatistics> getStatistics() {
+        final List<LayerStatistics> result = new ArrayList<>();
+        for (int layer = 0; layer < statistics.size(); ++layer) {
+            for (final LayerPhase phase : LayerPhase.values()) {
+                final long[] values = statistics.get(layer)[phase.ordinal()];
+                if (values[COUNT] > 0) {
+                    result.add(new LayerStatistics(layer, phase, values[COUNT], values[NANOS], values[FLOPS]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all collected statistics.
+     */
+    public synchronized void reset() {
+        statistics.clear();
+    }
+
+    private synchronized void record(final int layer, final LayerPhase phase, final long nanos, final long flops) {
+        while (statistics.size() <= layer) {
+            statistics.add(new long[LayerPhase.values().length][3]);
+        }
+        final long[] values = statistics.get(layer)[phase.ordinal()];
+        ++values[COUNT];
+        values[NANOS] += nanos;
+        values[FLOPS] += flops;
+    }
+
+    /**
+     * Single measurement of phase of layer started by
+     * {@link LayerProfiler#start(int, LayerPhase)}.
+     */
+    public static final class Measurement {
+
+        private final LayerProfiler profiler;
+        private final int layer;
+        private final LayerPhase phase;
+        private final LayerPhaseEvent event = new LayerPhaseEvent();
+        private final long startTime;
+
+        private Measurement(final LayerProfiler profiler, final int layer, final LayerPhase phase) {
+            this.profiler = profiler;
+            this.layer = layer;
+            this.phase = phase;
+            event.begin();
+            this.startTime = System.nanoTime();
+        }
+
+        /**
+         * Stops measurement and records it.
+         *
+         * @param flops number of floating point operations performed in measured
+         *              phase
+         */
+        public void stop(final long flops) {
+            final long nanos = System.nanoTime() - startTime;
+            profiler.record(layer, phase, nanos, flops);
+            event.end();
+            if (event.shouldCommit()) {
+                event.layer = layer;
+                event.phase = phase.name();
+                event.flops = flops;
+                event.commit();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package neuralnetwork.profiling;
+
+/**
+ * Statistics of single phase of single layer collected by
+ * {@link LayerProfiler}.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see LayerProfiler
+ */
+public class LayerStatistics {
+
+    private final int layer;
+    private final LayerPhase phase;
+    private final long count;
+    private final long totalNanos;
+    private final long flops;
+
+    LayerStatistics(final int layer, final LayerPhase phase, final long count, final long totalNanos,
+            final long flops) {
+        this.layer = layer;
+        this.phase = phase;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.flops = flops;
+    }
+
+    /**
+     * Returns index of layer, counting from layer closest to network inputs.
+     *
+     * @return index of layer.
+     */
+    public int getLayer() {
+        return layer;
+    }
+
+    /**
+     * Returns measured phase.
+     *
+     * @return measured phase.
+     */
+    public LayerPhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns number of measurements.
+     *
+     * @return number of measurements.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns total time of all measurements.
+     *
+     * @return total time in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns total number of floating point operations of all measurements.
+     *
+     * @return number of floating point operations.
+     */
+    public long getFlops() {
+        return flops;
+    }
+
+    /**
+     * Returns number of floating point operations performed per second.
+     *
+     * @return floating point operations per second, zero if no time was measured.
+     */
+    public double getFlopsPerSecond() {
+        return totalNanos == 0 ? 0D : flops * 1e9 / totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LAYER=%d\t\tPHASE=%s\t\tCOUNT=%d\t\tTIME=%.3fms\t\tMFLOPS=%.1f", layer, phase, count,
+                totalNanos / 1e6, getFlopsPerSecond() / 1e6);
+    }
+
+}
@@ -0,0 +1,10 @@
+/**
+ * Package storing classes for measuring time and number of floating point
+ * operations spent in each layer of Neural Network, both as statistics
+ * available in process and as Java Flight Recorder events.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see neuralnetwork.NeuralNetwork
+ */
+
+package neuralnetwork.profiling;
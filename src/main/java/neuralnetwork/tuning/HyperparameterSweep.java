@@ -0,0 +1,201 @@
+package neuralnetwork.tuning;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.NeuralNetworkTrainer;
+import neuralnetwork.WeightInitialization;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Concurrent search of the best hidden layers sizes and learning rate. <br>
+ * <br>
+ * All configurations are trained in one process on the same training and
+ * testing maps, which are only read, never copied. Configurations are trained
+ * on fixed number of threads in rounds using successive halving - after each
+ * round only the best configurations, according to accuracy on testing map,
+ * continue to next round, which trains them for more iterations. This way
+ * most training time is spent on promising configurations.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see SweepResult
+ */
+public class HyperparameterSweep {
+
+    private static final Comparator<SweepResult> RANKING = Comparator
+            .comparingInt(SweepResult::getNumberOfRounds).reversed()
+            .thenComparing(Comparator.comparingDouble(SweepResult::getAccuracy).reversed())
+            .thenComparingDouble(SweepResult::getRmse);
+    private final Map<List<Double>, List<Double>> trainingMap;
+    private final Map<List<Double>, List<Double>> testingMap;
+    private final int numberOfInputs;
+    private final int numberOfOutputs;
+    private final List<Configuration> configurations = new ArrayList<>();
+    private long seed = 0L;
+
+    /**
+     * Constructor.
+     *
+     * @param trainingMap     map containing input vectors and expected values used
+     *                        for training, shared by all configurations.
+     * @param testingMap      map containing input vectors and expected values used
+     *                        for ranking configurations, can't be empty.
+     * @param numberOfInputs  number of network inputs.
+     * @param numberOfOutputs number of network outputs.
+     */
+    public HyperparameterSweep(final Map<List<Double>, List<Double>> trainingMap,
+            final Map<List<Double>, List<Double>> testingMap, final int numberOfInputs, final int numberOfOutputs) {
+        if (testingMap.isEmpty()) {
+            throw new IllegalArgumentException("Testing map used for ranking configurations can't be empty!");
+        }
+        this.trainingMap = trainingMap;
+        this.testingMap = testingMap;
+        this.numberOfInputs = numberOfInputs;
+        this.numberOfOutputs = numberOfOutputs;
+    }
+
+    /**
+     * Setter for seed used for initial weights and samples shuffling of all
+     * configurations.
+     *
+     * @param seed seed of random number generators.
+     */
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Adds configuration to the sweep.
+     *
+     * @param learningRate                  learning rate used in training.
+     * @param numberOfNeuronsPerHiddenLayer array of numbers of neurons in each
+     *                                      hidden layer
+     */
+    public void addConfiguration(final double learningRate, final int... numberOfNeuronsPerHiddenLayer) {
+        configurations.add(new Configuration(learningRate, numberOfNeuronsPerHiddenLayer.clone()));
+    }
+
+    /**
+     * Adds configuration for each combination of given learning rates and hidden
+     * layers.
+     *
+     * @param learningRates                 learning rates used in training.
+     * @param numberOfNeuronsPerHiddenLayer arrays of numbers of neurons in each
+     *                                      hidden layer
+     */
+    public void addConfigurations(final double[] learningRates, final int[]... numberOfNeuronsPerHiddenLayer) {
+        for (final int[] hiddenLayers : numberOfNeuronsPerHiddenLayer) {
+            for (final double learningRate : learningRates) {
+                addConfiguration(learningRate, hiddenLayers);
+            }
+        }
+    }
+
+    /**
+     * Trains all configurations using successive halving. In first round each
+     * configuration is trained for given number of iterations. After each round
+     * only best configurations, one per reduction factor, are kept and trained
+     * in next round for reduction factor times more iterations than in previous
+     * one.
+     *
+     * @param iterationsInFirstRound number of iterations in first round.
+     * @param numberOfRounds         maximum number of rounds.
+     * @param reductionFactor        ratio of configurations in round to
+     *                               configurations kept for next round.
+     * @param numberOfThreads        number of configurations trained
+     *                               concurrently.
+     * @return results of all configurations, the best first.
+     * @throws InterruptedException thread was interrupted while waiting for
+     *                              training.
+     */
+    public List<SweepResult> run(final int iterationsInFirstRound, final int numberOfRounds,
+            final int reductionFactor, final int numberOfThreads) throws InterruptedException {
+        if (iterationsInFirstRound < 1 || numberOfRounds < 1 || reductionFactor < 2) {
+            throw new IllegalArgumentException(
+                    "Iterations and rounds have to be positive and reduction factor at least 2!");
+        }
+        final List<SweepResult> results = configurations.stream()
+                .map(configuration -> new SweepResult(configuration.numberOfNeuronsPerHiddenLayer,
+                        configuration.learningRate, new NeuralNetwork(WeightInitialization.XAVIER, seed,
+                                numberOfInputs, numberOfOutputs, configuration.numberOfNeuronsPerHiddenLayer)))
+                .collect(toList());
+        final List<NeuralNetworkTrainer> trainers = results.stream().map(this::createTrainer).collect(toList());
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Integer> survivors = IntStream.range(0, results.size()).boxed().collect(toList());
+            int iterations = iterationsInFirstRound;
+            for (int round = 0; round < numberOfRounds && !survivors.isEmpty(); ++round) {
+                final int roundIterations = iterations;
+                final List<Callable<Void>> tasks = survivors.stream()
+                        .map(index -> (Callable<Void>) () -> trainRound(trainers.get(index), results.get(index),
+                                roundIterations))
+                        .collect(toList());
+                for (final Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+                survivors = survivors.stream().sorted(Comparator.comparing(results::get, RANKING))
+                        .limit(Math.max(1, survivors.size() / reductionFactor)).collect(toList());
+                if (survivors.size() == 1) {
+                    break;
+                }
+                iterations *= reductionFactor;
+            }
+        } catch (final ExecutionException exception) {
+            throw new IllegalStateException(exception.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return results.stream().sorted(RANKING).collect(toList());
+    }
+
+    /**
+     * Formats results as table with one configuration per line.
+     *
+     * @param results results returned by
+     *                {@link HyperparameterSweep#run(int, int, int, int)}.
+     * @return results table.
+     */
+    public static String formatResults(final List<SweepResult> results) {
+        return IntStream.range(0, results.size()).mapToObj(i -> String.format("%d.\t%s", i + 1, results.get(i)))
+                .collect(joining(System.lineSeparator()));
+    }
+
+    private NeuralNetworkTrainer createTrainer(final SweepResult result) {
+        final NeuralNetworkTrainer trainer = new NeuralNetworkTrainer(result.getNeuralNetwork(), trainingMap,
+                testingMap, 0, result.getLearningRate());
+        trainer.setVerbose(false);
+        trainer.setShuffleSeed(seed);
+        return trainer;
+    }
+
+    private Void trainRound(final NeuralNetworkTrainer trainer, final SweepResult result, final int iterations) {
+        trainer.setNumberOfIterations(iterations);
+        final List<Double> rmses = trainer.train();
+        result.update(iterations, rmses.get(rmses.size() - 1), trainer.calculateAccuracy(trainer.getNeuralNetwork()));
+        return null;
+    }
+
+    private static class Configuration {
+
+        private final double learningRate;
+        private final int[] numberOfNeuronsPerHiddenLayer;
+
+        private Configuration(final double learningRate, final int[] numberOfNeuronsPerHiddenLayer) {
+            this.learningRate = learningRate;
+            this.numberOfNeuronsPerHiddenLayer = numberOfNeuronsPerHiddenLayer;
+        }
+
+    }
+
+}
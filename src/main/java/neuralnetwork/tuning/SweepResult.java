@@ -0,0 +1,108 @@
+package neuralnetwork.tuning;
+
+import neuralnetwork.NeuralNetwork;
+
+import java.util.Arrays;
+
+/**
+ * Result of training single configuration in {@link HyperparameterSweep}.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see HyperparameterSweep
+ */
+public class SweepResult {
+
+    private final int[] numberOfNeuronsPerHiddenLayer;
+    private final double learningRate;
+    private final NeuralNetwork neuralNetwork;
+    private double accuracy;
+    private double rmse;
+    private int numberOfIterations = 0;
+    private int numberOfRounds = 0;
+
+    SweepResult(final int[] numberOfNeuronsPerHiddenLayer, final double learningRate,
+            final NeuralNetwork neuralNetwork) {
+        this.numberOfNeuronsPerHiddenLayer = numberOfNeuronsPerHiddenLayer.clone();
+        this.learningRate = learningRate;
+        this.neuralNetwork = neuralNetwork;
+    }
+
+    /**
+     * Returns numbers of neurons in each hidden layer of trained configuration.
+     *
+     * @return array of numbers of neurons in each hidden layer.
+     */
+    public int[] getNumberOfNeuronsPerHiddenLayer() {
+        return numberOfNeuronsPerHiddenLayer.clone();
+    }
+
+    /**
+     * Returns learning rate of trained configuration.
+     *
+     * @return learning rate.
+     */
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    /**
+     * Returns trained Neural Network.
+     *
+     * @return trained Neural Network.
+     */
+    public NeuralNetwork getNeuralNetwork() {
+        return neuralNetwork;
+    }
+
+    /**
+     * Returns accuracy on testing map after last round this configuration took
+     * part in.
+     *
+     * @return accuracy as ratio of correctly classified samples.
+     */
+    public double getAccuracy() {
+        return accuracy;
+    }
+
+    /**
+     * Returns root mean square error of last training iteration.
+     *
+     * @return RMSE of last training iteration.
+     */
+    public double getRmse() {
+        return rmse;
+    }
+
+    /**
+     * Returns number of iterations this configuration was trained for.
+     *
+     * @return number of training iterations.
+     */
+    public int getNumberOfIterations() {
+        return numberOfIterations;
+    }
+
+    /**
+     * Returns number of rounds this configuration took part in before it was
+     * pruned or sweep ended.
+     *
+     * @return number of rounds.
+     */
+    public int getNumberOfRounds() {
+        return numberOfRounds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HIDDEN-LAYERS=%s\t\tLEARNING-RATE=%f\t\tITERATIONS=%d\t\tRMSE=%.3f\t\tACCURACY=%.5f",
+                Arrays.toString(numberOfNeuronsPerHiddenLayer), learningRate, numberOfIterations, rmse, accuracy);
+    }
+
+    void update(final int numberOfIterations, final double rmse, final double accuracy) {
+        this.numberOfIterations += numberOfIterations;
+        this.rmse = rmse;
+        this.accuracy = accuracy;
+        ++numberOfRounds;
+    }
+
+}
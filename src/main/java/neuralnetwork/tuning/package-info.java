@@ -0,0 +1,9 @@
+/**
+ * Package storing classes for searching the best hyperparameters of Neural
+ * Network, such as number of neurons in hidden layers and learning rate.
+ *
+ * @author Paweł Rutkowski S18277
+ * @see neuralnetwork.NeuralNetwork
+ */
+
+package neuralnetwork.tuning;
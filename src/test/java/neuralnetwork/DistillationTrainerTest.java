@@ -0,0 +1,161 @@
+package neuralnetwork;
+
+import neuralnetwork.helpers.WeightOperations;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistillationTrainerTest {
+
+    @Test void testSoftenWithTemperatureOfOneKeepsResponse() {
+        final List<Double> response = DistillationTrainer.soften(List.of(0.9, 0.2), 1D);
+        assertEquals(0.9, response.get(0), 1e-12);
+        assertEquals(0.2, response.get(1), 1e-12);
+    }
+
+    @Test void testSoftenWithHighTemperatureMovesResponseTowardsHalf() {
+        final List<Double> response = DistillationTrainer.soften(List.of(0.9, 0.2, 1D), 3D);
+        assertTrue(response.get(0) > 0.5 && response.get(0) < 0.9);
+        assertTrue(response.get(1) > 0.2 && response.get(1) < 0.5);
+        assertTrue(response.get(2) < 1D);
+    }
+
+    @Test void testStudentLearnsFromTeacher() {
+        final Map<List<Double>, List<Double>> trainingMap = createDataset(new Random(1L), 200);
+        final Map<List<Double>, List<Double>> testingMap = createDataset(new Random(2L), 100);
+        final NeuralNetwork teacher = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 2, 2, 16, 16);
+        final NeuralNetworkTrainer teacherTrainer = new NeuralNetworkTrainer(teacher, trainingMap, testingMap, 500,
+                0.5);
+        teacherTrainer.setVerbose(false);
+        teacherTrainer.setShuffleSeed(4L);
+        teacherTrainer.train();
+        final NeuralNetwork student = new NeuralNetwork(WeightInitialization.XAVIER, 5L, 2, 2, 4);
+        final DistillationTrainer distillationTrainer = new DistillationTrainer(teacher, student, 2D);
+        distillationTrainer.setShuffleSeed(6L);
+        final List<Double> rmses = distillationTrainer.train(trainingMap.keySet(), 500, 0.5);
+        assertEquals(500, rmses.size());
+        assertTrue(rmses.get(499) < rmses.get(0));
+        final double teacherAccuracy = teacherTrainer.calculateAccuracy(teacher);
+        assertTrue(teacherAccuracy > 0.9);
+        assertTrue(teacherTrainer.calculateAccuracy(student) > teacherAccuracy - 0.05);
+        assertTrue(distillationTrainer.compare(teacherTrainer).startsWith("TEACHER-ACCURACY="));
+    }
+
+    @Test void testHardLabelsOnlyTrainsOnLabels() {
+        final Map<List<Double>, List<Double>> trainingMap = Map.of(List.of(0D, 1D), List.of(1D, 0D));
+        final NeuralNetwork teacher = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 2, 2, 3);
+        final NeuralNetwork student = new NeuralNetwork(WeightInitialization.XAVIER, 5L, 2, 2, 3);
+        final DistillationTrainer distillationTrainer = new DistillationTrainer(teacher, student, 5D);
+        distillationTrainer.setHardLabelWeight(1D);
+        distillationTrainer.train(trainingMap, 500, 0.5);
+        final List<Double> response = student.calculateResponse(List.of(0D, 1D));
+        assertTrue(response.get(0) > 0.9 && response.get(1) < 0.1);
+    }
+
+    @Test void testTemperatureOfOneMatchesTrainingOnTeacherResponses() {
+        final List<Double> inputs = List.of(0.2, 0.7);
+        final NeuralNetwork teacher = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 2, 2, 3);
+        final NeuralNetwork student = new NeuralNetwork(WeightInitialization.XAVIER, 5L, 2, 2, 3);
+        final NeuralNetwork reference = new NeuralNetwork(WeightInitialization.XAVIER, 5L, 2, 2, 3);
+        new DistillationTrainer(teacher, student, 1D).train(List.of(inputs), 10, 0.5);
+        for (int i = 0; i < 10; ++i) {
+            reference.train(inputs, teacher.calculateResponse(inputs), 0.5);
+        }
+        final double[][] referenceWeights = reference.exportWeights();
+        final double[][] studentWeights = student.exportWeights();
+        for (int i = 0; i < referenceWeights.length; ++i) {
+            assertArrayEquals(referenceWeights[i], studentWeights[i], 1e-12);
+        }
+    }
+
+    @Test void testStudentImitatesTeacherWithoutTemperature() {
+        final List<Double> inputs = List.of(0.2, 0.7);
+        final NeuralNetwork teacher = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 2, 2, 3);
+        teacher.train(inputs, List.of(1D, 0D), 2);
+        final List<Double> teacherResponse = teacher.calculateResponse(inputs);
+        final NeuralNetwork student = new NeuralNetwork(WeightInitialization.XAVIER, 5L, 2, 2, 3);
+        new DistillationTrainer(teacher, student, 3D).train(List.of(inputs), 2000, 0.5);
+        final List<Double> studentResponse = student.calculateResponse(inputs);
+        assertEquals(teacherResponse.get(0), studentResponse.get(0), 1e-3);
+        assertEquals(teacherResponse.get(1), studentResponse.get(1), 1e-3);
+    }
+
+    @Test void testOutputErrorIsGradientOfSoftLossWithRespectToLogit() {
+        final double temperature = 3D;
+        final List<Double> inputs = List.of(0.2, 0.7);
+        final NeuralNetwork teacher = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 2, 2, 3);
+        teacher.train(inputs, List.of(1D, 0D), 2);
+        final List<Double> softTargets = DistillationTrainer.soften(teacher.calculateResponse(inputs), temperature);
+        final NeuralNetwork student = new NeuralNetwork(WeightInitialization.XAVIER, 5L, 2, 2, 3);
+        final double[][] weights = student.exportWeights();
+        final int outputLayer = weights.length - 1;
+        final int rowLength = weights[outputLayer].length / student.getNumberOfOutputs();
+        new DistillationTrainer(teacher, student, temperature).train(List.of(inputs), 1, 1);
+        final double[][] trainedWeights = student.exportWeights();
+        final double step = 1e-6;
+        for (int neuron = 0; neuron < student.getNumberOfOutputs(); ++neuron) {
+            final int bias = neuron * rowLength + rowLength - 1;
+            final double[][] increasedWeights = WeightOperations.copyWeights(weights);
+            final double[][] decreasedWeights = WeightOperations.copyWeights(weights);
+            increasedWeights[outputLayer][bias] += step;
+            decreasedWeights[outputLayer][bias] -= step;
+            final double gradient = (calculateSoftLoss(increasedWeights, inputs, softTargets, temperature)
+                    - calculateSoftLoss(decreasedWeights, inputs, softTargets, temperature)) / (2 * step);
+            assertEquals(-gradient, trainedWeights[outputLayer][bias] - weights[outputLayer][bias], 1e-6);
+        }
+    }
+
+    @Test void testLabelOfWrongSizeThrowsBeforeTraining() {
+        final NeuralNetwork teacher = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 2, 2, 3);
+        final NeuralNetwork student = new NeuralNetwork(WeightInitialization.XAVIER, 5L, 2, 2, 3);
+        final DistillationTrainer distillationTrainer = new DistillationTrainer(teacher, student, 2D);
+        final Map<List<Double>, List<Double>> trainingMap = new HashMap<>();
+        trainingMap.put(List.of(0D, 1D), List.of(1D, 0D));
+        trainingMap.put(List.of(1D, 0D), List.of(1D));
+        assertThrows(IllegalArgumentException.class, () -> distillationTrainer.train(trainingMap, 1, 0.5));
+        assertEquals(0, student.getWeightsVersion());
+    }
+
+    @Test void testIllegalArgumentsThrow() {
+        final NeuralNetwork teacher = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 2, 2, 3);
+        assertThrows(IllegalArgumentException.class,
+                () -> new DistillationTrainer(teacher, new NeuralNetwork(3, 2, 3), 1D));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DistillationTrainer(teacher, new NeuralNetwork(2, 2, 3), 0D));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DistillationTrainer(teacher, new NeuralNetwork(2, 2, 3), 1D).setHardLabelWeight(2D));
+    }
+
+    private static double calculateSoftLoss(final double[][] weights, final List<Double> inputs,
+            final List<Double> softTargets, final double temperature) {
+        final NeuralNetwork student = new NeuralNetwork(2, 2, 3);
+        student.importWeights(weights);
+        final List<Double> softResponses = DistillationTrainer.soften(student.calculateResponse(inputs), temperature);
+        double loss = 0D;
+        for (int i = 0; i < softTargets.size(); ++i) {
+            loss -= temperature * temperature * (softTargets.get(i) * Math.log(softResponses.get(i))
+                    + (1D - softTargets.get(i)) * Math.log(1D - softResponses.get(i)));
+        }
+        return loss;
+    }
+
+    private static Map<List<Double>, List<Double>> createDataset(final Random random, final int size) {
+        final Map<List<Double>, List<Double>> dataset = new HashMap<>();
+        while (dataset.size() < size) {
+            final double x = random.nextDouble();
+            final double y = random.nextDouble();
+            final boolean insideCircle = (x - 0.5) * (x - 0.5) + (y - 0.5) * (y - 0.5) < 0.1;
+            dataset.put(List.of(x, y), insideCircle ? List.of(1D, 0D) : List.of(0D, 1D));
+        }
+        return dataset;
+    }
+
+}
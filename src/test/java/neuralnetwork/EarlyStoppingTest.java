@@ -0,0 +1,85 @@
+package neuralnetwork;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EarlyStoppingTest {
+
+    private final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 5L, 2, 2, 3);
+
+    @Test void testStopsAfterPatienceWithoutImprovement() {
+        final EarlyStopping earlyStopping = new EarlyStopping(EarlyStopping.Metric.RMSE, 2, 0.1);
+        assertTrue(earlyStopping.update(1, 5, neuralNetwork));
+        assertTrue(earlyStopping.update(2, 4.95, neuralNetwork));
+        assertTrue(earlyStopping.update(3, 4, neuralNetwork));
+        assertTrue(earlyStopping.update(4, 4.5, neuralNetwork));
+        assertFalse(earlyStopping.update(5, 3.99, neuralNetwork));
+        assertEquals(3, earlyStopping.getBestIteration());
+        assertEquals(4, earlyStopping.getBestValue());
+    }
+
+    @Test void testAccuracyHigherIsBetter() {
+        final EarlyStopping earlyStopping = new EarlyStopping(EarlyStopping.Metric.ACCURACY, 1, 0);
+        assertTrue(earlyStopping.update(1, 0.5, neuralNetwork));
+        assertTrue(earlyStopping.update(2, 0.7, neuralNetwork));
+        assertFalse(earlyStopping.update(3, 0.6, neuralNetwork));
+        assertEquals(2, earlyStopping.getBestIteration());
+    }
+
+    @Test void testRestoreBestWeights() {
+        final EarlyStopping earlyStopping = new EarlyStopping(EarlyStopping.Metric.RMSE, 1, 0);
+        final double[][] bestWeights = neuralNetwork.exportWeights();
+        earlyStopping.update(1, 1, neuralNetwork);
+        neuralNetwork.train(List.of(1D, 0D), List.of(1D, 0D), 1);
+        earlyStopping.update(2, 2, neuralNetwork);
+        earlyStopping.restoreBestWeights(neuralNetwork);
+        assertArrayEquals(bestWeights, neuralNetwork.exportWeights());
+    }
+
+    @Test void testTrainerStopsEarly() {
+        final Map<List<Double>, List<Double>> trainingMap = IntStream.range(0, 10).mapToObj(i -> List.of(i / 10D, 0.5))
+                .collect(toMap(Function.identity(), inputs -> List.of(1D, 0D)));
+        final NeuralNetworkTrainer trainer = new NeuralNetworkTrainer(neuralNetwork, trainingMap, trainingMap, 1000, 1);
+        final EarlyStopping earlyStopping = new EarlyStopping(EarlyStopping.Metric.ACCURACY, 3, 0);
+        trainer.setEarlyStopping(earlyStopping);
+        final List<Double> rmses = trainer.train();
+        assertEquals(earlyStopping.getBestIteration() + 3, rmses.size());
+        assertEquals(1D, earlyStopping.getBestValue());
+    }
+
+    @Test void testRmseIsCalculatedOnTestingMap() {
+        final Map<List<Double>, List<Double>> trainingMap = Map.of(List.of(0D, 1D), List.of(1D, 0D));
+        final Map<List<Double>, List<Double>> testingMap = Map.of(List.of(0D, 1D), List.of(0D, 1D));
+        final NeuralNetworkTrainer trainer = new NeuralNetworkTrainer(neuralNetwork, trainingMap, testingMap, 100, 1);
+        final EarlyStopping earlyStopping = new EarlyStopping(EarlyStopping.Metric.RMSE, 1, 0);
+        trainer.setEarlyStopping(earlyStopping);
+        final List<Double> rmses = trainer.train();
+        assertEquals(2, rmses.size());
+        assertEquals(1, earlyStopping.getBestIteration());
+        assertTrue(earlyStopping.getBestValue() > rmses.get(0));
+    }
+
+    @Test void testEmptyTestingMapThrowsIllegalArgumentException() {
+        final NeuralNetworkTrainer trainer = new NeuralNetworkTrainer(neuralNetwork,
+                Map.of(List.of(0D, 1D), List.of(1D, 0D)), Map.of(), 1, 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> trainer.setEarlyStopping(new EarlyStopping(EarlyStopping.Metric.RMSE, 1, 0)));
+        assertThrows(IllegalStateException.class, () -> trainer.calculateAccuracy(neuralNetwork));
+    }
+
+    @Test void testNonPositivePatienceThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new EarlyStopping(EarlyStopping.Metric.RMSE, 0, 0));
+    }
+
+}
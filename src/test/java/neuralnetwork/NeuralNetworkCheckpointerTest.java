@@ -0,0 +1,86 @@
+package neuralnetwork;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NeuralNetworkCheckpointerTest {
+
+    private static final long SEED = 3L;
+    private static final int NUMBER_OF_ITERATIONS = 10;
+    private final Map<List<Double>, List<Double>> trainingMap = IntStream.range(0, 20)
+            .mapToObj(i -> List.of(i / 20D, i % 3 / 3D)).collect(toMap(Function.identity(), i -> List.of(i.get(1))));
+    private Path directory;
+
+    @BeforeEach void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("checkpoints");
+    }
+
+    @Test void testKeepsOnlyRetainedCheckpoints() throws IOException {
+        final NeuralNetworkTrainer trainer = createTrainer(NUMBER_OF_ITERATIONS);
+        try (NeuralNetworkCheckpointer checkpointer = new NeuralNetworkCheckpointer(directory, 1, Duration.ZERO, 2)) {
+            trainer.setCheckpointer(checkpointer);
+            trainer.train();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        assertTrue(NeuralNetworkCheckpointer.findLatestCheckpoint(directory).orElseThrow().toString()
+                .endsWith("checkpoint-0000000010.bin"));
+    }
+
+    @Test void testResumeFromCheckpoint() throws IOException {
+        final NeuralNetworkTrainer uninterruptedTrainer = createTrainer(NUMBER_OF_ITERATIONS);
+        final List<Double> rmses = uninterruptedTrainer.train();
+        final NeuralNetworkTrainer interruptedTrainer = createTrainer(NUMBER_OF_ITERATIONS / 2);
+        try (NeuralNetworkCheckpointer checkpointer = new NeuralNetworkCheckpointer(directory, 5, Duration.ZERO, 1)) {
+            interruptedTrainer.setCheckpointer(checkpointer);
+            interruptedTrainer.train();
+        }
+        final NeuralNetworkTrainer resumedTrainer = new NeuralNetworkTrainer(new NeuralNetwork(2, 1, 4), trainingMap,
+                Map.of(), NUMBER_OF_ITERATIONS, 0);
+        resumedTrainer.resumeFromCheckpoint(NeuralNetworkCheckpointer.findLatestCheckpoint(directory).orElseThrow());
+        final List<Double> resumedRmses = resumedTrainer.train();
+        assertEquals(rmses.subList(NUMBER_OF_ITERATIONS / 2, NUMBER_OF_ITERATIONS), resumedRmses);
+        assertArrayEquals(uninterruptedTrainer.getNeuralNetwork().exportWeights(),
+                resumedTrainer.getNeuralNetwork().exportWeights());
+    }
+
+    @Test void testWriteFailureIsRethrownOnClose() throws IOException {
+        final NeuralNetworkTrainer trainer = createTrainer(1);
+        final NeuralNetworkCheckpointer checkpointer = new NeuralNetworkCheckpointer(directory, 1, Duration.ZERO, 1);
+        Files.delete(directory);
+        trainer.setCheckpointer(checkpointer);
+        trainer.train();
+        assertThrows(IOException.class, checkpointer::close);
+    }
+
+    @Test void testFindLatestCheckpointInEmptyDirectory() throws IOException {
+        assertFalse(NeuralNetworkCheckpointer.findLatestCheckpoint(directory).isPresent());
+    }
+
+    private NeuralNetworkTrainer createTrainer(final int numberOfIterations) {
+        final NeuralNetworkTrainer trainer = new NeuralNetworkTrainer(
+                new NeuralNetwork(WeightInitialization.XAVIER, SEED, 2, 1, 4), trainingMap, Map.of(),
+                numberOfIterations, 0.5);
+        trainer.setShuffleSeed(SEED);
+        return trainer;
+    }
+
+}
@@ -0,0 +1,82 @@
+package neuralnetwork;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NeuralNetworkEnsembleTest {
+
+    private static final Map<List<Double>, List<Double>> XOR = Map.of(List.of(0D, 0D), List.of(1D, 0D),
+            List.of(0D, 1D), List.of(0D, 1D), List.of(1D, 0D), List.of(0D, 1D), List.of(1D, 1D), List.of(1D, 0D));
+
+    private final NeuralNetwork first = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 2, 4);
+    private final NeuralNetwork second = new NeuralNetwork(WeightInitialization.XAVIER, 2L, 2, 2, 4);
+
+    @Test void testAverageCombination() {
+        final NeuralNetworkEnsemble ensemble = new NeuralNetworkEnsemble(List.of(first, second),
+                NeuralNetworkEnsemble.Combination.AVERAGE);
+        final List<Double> inputs = List.of(0.3, 0.7);
+        final List<Double> firstResponse = first.calculateResponse(inputs);
+        final List<Double> secondResponse = second.calculateResponse(inputs);
+        final List<Double> response = ensemble.calculateResponse(inputs);
+        for (int i = 0; i < response.size(); ++i) {
+            assertEquals((firstResponse.get(i) + secondResponse.get(i)) / 2, response.get(i), 1e-12);
+        }
+    }
+
+    @Test void testVoteCombinationSumsToOne() {
+        final NeuralNetworkEnsemble ensemble = new NeuralNetworkEnsemble(List.of(first, second),
+                NeuralNetworkEnsemble.Combination.VOTE);
+        final List<Double> response = ensemble.calculateResponse(List.of(0.3, 0.7));
+        assertEquals(1D, response.stream().mapToDouble(Double::doubleValue).sum(), 1e-12);
+    }
+
+    @Test void testBatchMatchesSingleResponses() {
+        final NeuralNetworkEnsemble ensemble = new NeuralNetworkEnsemble(List.of(first, second),
+                NeuralNetworkEnsemble.Combination.AVERAGE);
+        final List<List<Double>> batch = List.of(List.of(0D, 1D), List.of(1D, 1D), List.of(0.5, 0.2));
+        final List<List<Double>> responses = ensemble.calculateResponses(batch);
+        for (int i = 0; i < batch.size(); ++i) {
+            final List<Double> single = ensemble.calculateResponse(batch.get(i));
+            for (int j = 0; j < single.size(); ++j) {
+                assertEquals(single.get(j), responses.get(i).get(j), 1e-12);
+            }
+        }
+    }
+
+    @Test void testTrainingLearnsXor() {
+        final NeuralNetworkEnsemble ensemble = new NeuralNetworkEnsemble(List.of(first, second),
+                NeuralNetworkEnsemble.Combination.AVERAGE);
+        final List<Double> errors = ensemble.train(XOR, 3000, 0.5, false, 7L);
+        assertEquals(2, errors.size());
+        XOR.forEach((inputs, expected) -> {
+            final List<Double> response = ensemble.calculateResponse(inputs);
+            assertEquals(expected.indexOf(1D), response.indexOf(response.stream().max(Double::compare).get()));
+        });
+    }
+
+    @Test void testBaggingTrainsMembersDifferently() {
+        final NeuralNetwork third = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 2, 4);
+        final NeuralNetworkEnsemble ensemble = new NeuralNetworkEnsemble(List.of(first, third),
+                NeuralNetworkEnsemble.Combination.AVERAGE);
+        ensemble.train(XOR, 10, 0.5, true, 3L);
+        assertNotEquals(first.calculateResponse(List.of(0D, 1D)), third.calculateResponse(List.of(0D, 1D)));
+    }
+
+    @Test void testEmptyEnsembleThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new NeuralNetworkEnsemble(List.of(), NeuralNetworkEnsemble.Combination.AVERAGE));
+    }
+
+    @Test void testMembersWithDifferentOutputsThrow() {
+        final NeuralNetwork other = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 2, 3, 4);
+        assertThrows(IllegalArgumentException.class,
+                () -> new NeuralNetworkEnsemble(List.of(first, other), NeuralNetworkEnsemble.Combination.AVERAGE));
+    }
+
+}
@@ -2,16 +2,32 @@ package neuralnetwork;
 
 import fakes.FakeNeuron;
 import fakes.FakeOutputNeuron;
+import neuralnetwork.convolution.ConvolutionLayer;
+import neuralnetwork.convolution.PoolingLayer;
+import neuralnetwork.helpers.MemoryOperations;
+import neuralnetwork.neuron.InputNeuron;
+import neuralnetwork.neuron.Neuron;
+import neuralnetwork.neuron.OutputNeuron;
+import neuralnetwork.neuron.PreviousLayer;
+import neuralnetwork.neuron.WeightBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class NeuralNetworkTest {
 
@@ -46,6 +62,55 @@ class NeuralNetworkTest {
         assertEquals(NUMBER_OF_NEURONS, timesAdjustWeightCalled);
     }
 
+    @Test void testTrainWithFrozenLayers() {
+        final FakeOutputNeuron outputNeuron = new FakeOutputNeuron();
+        network.freezeLayers(1);
+        network.train(doubles, IntStream.range(0, NUMBER_OF_OUTPUTS).mapToObj(Double::valueOf).collect(toList()), 1);
+        final int numberOfTrainableNeurons = NUMBER_OF_NEURONS - NUMBER_OF_HIDDEN_NEURONS[0];
+        assertEquals(numberOfTrainableNeurons,
+                fakeNeuron.timesCalculateErrorCalled() + outputNeuron.timesCalculateErrorCalled());
+        assertEquals(numberOfTrainableNeurons, fakeNeuron.timesAdjustWeightsCalled());
+    }
+
+    @Test void testCalculateResponseWithCachedFrozenResponses() {
+        network.freezeLayers(NUMBER_OF_HIDDEN_NEURONS.length);
+        network.setCachingFrozenResponses(true);
+        network.calculateResponse(doubles);
+        network.calculateResponse(doubles);
+        assertEquals(NUMBER_OF_NEURONS + NUMBER_OF_OUTPUTS, fakeNeuron.timesCalculateResponseCalled());
+    }
+
+    @Test void testFreezeOutputLayerThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> network.freezeLayers(NUMBER_OF_HIDDEN_NEURONS.length + 1));
+    }
+
+    @Test void testExportAndImportWeights() {
+        final NeuralNetwork otherNetwork = new NeuralNetwork(NUMBER_OF_INPUTS, NUMBER_OF_OUTPUTS,
+                NUMBER_OF_HIDDEN_NEURONS);
+        network.importWeights(otherNetwork.exportWeights());
+        assertArrayEquals(otherNetwork.exportWeights(), network.exportWeights());
+    }
+
+    @Test void testImportWeightsOfDifferentTopologyThrowsIllegalArgumentException() {
+        final NeuralNetwork otherNetwork = new NeuralNetwork(NUMBER_OF_INPUTS, NUMBER_OF_OUTPUTS, 4, 5);
+        assertThrows(IllegalArgumentException.class, () -> network.importWeights(otherNetwork.exportWeights()));
+    }
+
+    @Test void testCalculateResponses() {
+        final List<List<Double>> responses = network.calculateResponses(List.of(doubles, doubles));
+        assertEquals(2, responses.size());
+        assertEquals(NUMBER_OF_OUTPUTS, responses.get(0).size());
+        assertEquals(responses.get(0), responses.get(1));
+        assertEquals(0, fakeNeuron.timesCalculateResponseCalled());
+    }
+
+    @Test void testCalculateResponsesWithWrongSizeThrowsIllegalArgumentException() {
+        final List<Double> incorrectInputSizeList = IntStream.range(0, NUMBER_OF_INPUTS - 1).mapToObj(Double::valueOf)
+                .collect(toList());
+        assertThrows(IllegalArgumentException.class,
+                () -> network.calculateResponses(List.of(doubles, incorrectInputSizeList)));
+    }
+
     @Test void testCalculateResponseWithWrongSizeThrowsIllegalArgumentException() {
         final List<Double> incorrectInputSizeList = IntStream.range(0, NUMBER_OF_INPUTS - 1).mapToObj(Double::valueOf)
                 .collect(toList());
@@ -58,4 +123,131 @@ class NeuralNetworkTest {
         assertThrows(IllegalArgumentException.class, () -> network.train(doubles, incorrectInputSizeList, 1));
     }
 
+    @Test void testExportWeightsOfNetworkWithSpatialLayers() {
+        final NeuralNetwork spatialNetwork = new NeuralNetwork(WeightInitialization.HE, 1L,
+                List.of(new ConvolutionLayer(8, 8, 1, 3, 3), new PoolingLayer(6, 6, 3, 2, PoolingLayer.Type.MAX)),
+                NUMBER_OF_OUTPUTS, 5);
+        assertEquals(64, spatialNetwork.getNumberOfInputs());
+        final double[][] weights = spatialNetwork.exportWeights();
+        assertArrayEquals(new int[] { 3 * 10, 0, 5 * 28, NUMBER_OF_OUTPUTS * 6 },
+                Arrays.stream(weights).mapToInt(layerWeights -> layerWeights.length).toArray());
+        spatialNetwork.importWeights(weights);
+    }
+
+    @Test void testMismatchedSpatialLayersThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new NeuralNetwork(WeightInitialization.HE, 1L,
+                List.of(new ConvolutionLayer(8, 8, 1, 3, 3), new PoolingLayer(8, 8, 3, 2, PoolingLayer.Type.MAX)),
+                NUMBER_OF_OUTPUTS));
+    }
+
+    @Test void testStoringWeightsOffHeap() {
+        final double[][] weights = network.exportWeights();
+        final List<List<Double>> responses = network.calculateResponses(List.of(doubles));
+        network.setStoringWeightsOffHeap(true);
+        assertTrue(network.isStoringWeightsOffHeap());
+        assertArrayEquals(weights, network.exportWeights());
+        assertEquals(responses, network.calculateResponses(List.of(doubles)));
+        network.setStoringWeightsOffHeap(false);
+        assertFalse(network.isStoringWeightsOffHeap());
+        assertArrayEquals(weights, network.exportWeights());
+    }
+
+    @Test void testSaveAndMapWeights() throws IOException {
+        final Path path = Files.createTempFile("weights", ".bin");
+        try {
+            final NeuralNetwork otherNetwork = new NeuralNetwork(NUMBER_OF_INPUTS, NUMBER_OF_OUTPUTS,
+                    NUMBER_OF_HIDDEN_NEURONS);
+            otherNetwork.saveWeights(path);
+            network.mapWeights(path);
+            assertTrue(network.isStoringWeightsOffHeap());
+            assertArrayEquals(otherNetwork.exportWeights(), network.exportWeights());
+            assertEquals(otherNetwork.calculateResponses(List.of(doubles)),
+                    network.calculateResponses(List.of(doubles)));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test void testMapWeightsReadOnly() throws IOException {
+        final Path path = Files.createTempFile("weights", ".bin");
+        try {
+            final NeuralNetwork otherNetwork = new NeuralNetwork(NUMBER_OF_INPUTS, NUMBER_OF_OUTPUTS,
+                    NUMBER_OF_HIDDEN_NEURONS);
+            otherNetwork.saveWeights(path);
+            path.toFile().setWritable(false);
+            final List<Double> expectedResponses = IntStream.range(0, NUMBER_OF_OUTPUTS).mapToObj(Double::valueOf)
+                    .collect(toList());
+            network.mapWeights(path, true);
+            assertArrayEquals(otherNetwork.exportWeights(), network.exportWeights());
+            assertEquals(otherNetwork.calculateResponses(List.of(doubles)),
+                    network.calculateResponses(List.of(doubles)));
+            assertThrows(IllegalStateException.class, () -> network.train(doubles, expectedResponses, 0.1));
+            assertThrows(IllegalStateException.class, () -> network.importWeights(otherNetwork.exportWeights()));
+            network.setStoringWeightsOffHeap(false);
+            network.train(doubles, expectedResponses, 0.1);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test void testMapWeightsOfDifferentTopologyThrowsIllegalArgumentException() throws IOException {
+        final Path path = Files.createTempFile("weights", ".bin");
+        try {
+            new NeuralNetwork(NUMBER_OF_INPUTS, NUMBER_OF_OUTPUTS, 4, 5).saveWeights(path);
+            assertThrows(IllegalArgumentException.class, () -> network.mapWeights(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test void testMemoryFootprint() {
+        final MemoryFootprint memoryFootprint = network.getMemoryFootprint();
+        assertArrayEquals(new long[] { 5 * 11, 5 * 6, NUMBER_OF_OUTPUTS * 6 },
+                memoryFootprint.getNumberOfParametersPerLayer());
+        assertEquals((5 * 11 + 5 * 6 + NUMBER_OF_OUTPUTS * 6) * Double.BYTES, memoryFootprint.getWeightBytes());
+        assertTrue(memoryFootprint.getHeapBytes() > memoryFootprint.getWeightBytes());
+        assertEquals(0, memoryFootprint.getOffHeapBytes());
+        assertTrue(memoryFootprint.getActivationBytesPerSample()
+                > (NUMBER_OF_INPUTS + NUMBER_OF_NEURONS) * Double.BYTES);
+        assertEquals(memoryFootprint.getHeapBytes(), memoryFootprint.getTotalHeapBytes());
+        network.setStoringWeightsOffHeap(true);
+        final MemoryFootprint offHeapMemoryFootprint = network.getMemoryFootprint();
+        assertEquals(memoryFootprint.getWeightBytes(), offHeapMemoryFootprint.getOffHeapBytes());
+        assertTrue(offHeapMemoryFootprint.getHeapBytes() < memoryFootprint.getHeapBytes());
+    }
+
+    @Test void testMemoryFootprintMatchesDeclaredFields() {
+        assertEquals(layoutBytes(NeuralNetwork.class), NeuralNetwork.NEURAL_NETWORK_BYTES);
+        assertEquals(layoutBytes(InputNeuron.class), NeuralNetwork.INPUT_NEURON_BYTES);
+        assertEquals(layoutBytes(Neuron.class), NeuralNetwork.NEURON_BYTES);
+        assertEquals(layoutBytes(OutputNeuron.class), NeuralNetwork.OUTPUT_NEURON_BYTES);
+        assertEquals(layoutBytes(PreviousLayer.class), NeuralNetwork.PREVIOUS_LAYER_BYTES);
+        assertEquals(layoutBytes(WeightBuffer.class), NeuralNetwork.WEIGHT_BUFFER_BYTES);
+    }
+
+    private static long layoutBytes(final Class<?> type) {
+        int numberOfReferences = 0;
+        int primitiveBytes = 0;
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                final Class<?> fieldType = field.getType();
+                if (!fieldType.isPrimitive()) {
+                    ++numberOfReferences;
+                } else if (fieldType == long.class || fieldType == double.class) {
+                    primitiveBytes += Long.BYTES;
+                } else if (fieldType == int.class || fieldType == float.class) {
+                    primitiveBytes += Integer.BYTES;
+                } else if (fieldType == short.class || fieldType == char.class) {
+                    primitiveBytes += Short.BYTES;
+                } else {
+                    ++primitiveBytes;
+                }
+            }
+        }
+        return MemoryOperations.objectBytes(numberOfReferences, primitiveBytes);
+    }
+
 }
@@ -1,5 +1,40 @@
 package neuralnetwork;
 
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class NeuralNetworkTrainerTest {
 
+    private static final Map<List<Double>, List<Double>> TRAINING_MAP = Map.of(List.of(0D, 0D), List.of(1D, 0D),
+            List.of(0D, 1D), List.of(0D, 1D), List.of(1D, 0D), List.of(0D, 1D));
+    private static final Map<List<Double>, List<Double>> TESTING_MAP = Map.of(List.of(1D, 1D), List.of(1D, 0D));
+
+    @Test void testMemoryFootprintIncludesData() {
+        final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 2, 3);
+        final NeuralNetworkTrainer trainer = new NeuralNetworkTrainer(neuralNetwork, TRAINING_MAP, TESTING_MAP, 1,
+                0.1);
+        final MemoryFootprint memoryFootprint = trainer.getMemoryFootprint();
+        assertEquals(4 * 4 * Double.BYTES, memoryFootprint.getDatasetRawBytes());
+        assertTrue(memoryFootprint.getDatasetHeapBytes() > memoryFootprint.getDatasetRawBytes());
+        assertEquals(neuralNetwork.getMemoryFootprint().getHeapBytes(), memoryFootprint.getSavedNetworkHeapBytes());
+        assertEquals(memoryFootprint.getHeapBytes() + memoryFootprint.getDatasetHeapBytes()
+                + memoryFootprint.getSavedNetworkHeapBytes(), memoryFootprint.getTotalHeapBytes());
+    }
+
+    @Test void testTestResponseCalculator() {
+        final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 2, 3);
+        final NeuralNetworkTrainer trainer = new NeuralNetworkTrainer(neuralNetwork, TRAINING_MAP, TRAINING_MAP, 1,
+                0.1);
+        final ResponseCalculator responseCalculator = inputs -> List.of(0.5, inputs.get(1));
+        final List<Entry<List<Double>, Integer>> incorrectResponses = trainer.test(responseCalculator);
+        assertEquals(List.of(Map.entry(List.of(0.5, 0D), 1)), incorrectResponses);
+        assertEquals(2 / 3D, trainer.calculateAccuracy(responseCalculator), 1e-12);
+    }
+
 }
@@ -0,0 +1,121 @@
+package neuralnetwork;
+
+import neuralnetwork.helpers.MathOperations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OnlineNeuralNetworkTrainerTest {
+
+    private static final int NUMBER_OF_SAMPLES = 4000;
+    private final List<Entry<List<Double>, List<Double>>> samples = IntStream.range(0, NUMBER_OF_SAMPLES)
+            .mapToObj(i -> Map.entry(List.of((double) (i % 2), (double) (i / 2 % 2)),
+                    List.of((double) (i % 2 ^ i / 2 % 2))))
+            .collect(toList());
+    private NeuralNetwork neuralNetwork;
+    private OnlineNeuralNetworkTrainer trainer;
+
+    @BeforeEach void prepareTrainer() {
+        neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 1, 4);
+        trainer = new OnlineNeuralNetworkTrainer(neuralNetwork, 1, 100);
+    }
+
+    @Test void testTrainOnIterator() {
+        assertEquals(NUMBER_OF_SAMPLES, trainer.train(samples.iterator()));
+        assertEquals(NUMBER_OF_SAMPLES, trainer.getNumberOfSamples());
+        assertEquals(NUMBER_OF_SAMPLES, neuralNetwork.getWeightsVersion());
+    }
+
+    @Test void testTrainOnPublisher() {
+        final SubmissionPublisher<Entry<List<Double>, List<Double>>> publisher = new SubmissionPublisher<>();
+        final CompletableFuture<Long> result = trainer.train(publisher, 16);
+        samples.forEach(publisher::submit);
+        publisher.close();
+        assertEquals(NUMBER_OF_SAMPLES, result.join().longValue());
+    }
+
+    @Test void testLossReporting() {
+        final List<Double> losses = new ArrayList<>();
+        trainer.setLossReporting(1000, losses::add);
+        trainer.train(Stream.concat(samples.stream(), samples.stream()));
+        assertEquals(2 * NUMBER_OF_SAMPLES / 1000, losses.size());
+        assertTrue(losses.get(losses.size() - 1) < losses.get(0));
+        assertEquals(losses.get(losses.size() - 1).doubleValue(), trainer.getRollingLoss());
+    }
+
+    @Test void testPublishWeights() {
+        final NeuralNetwork liveNeuralNetwork = new NeuralNetwork(2, 1, 4);
+        trainer.setWeightsPublishing(NUMBER_OF_SAMPLES / 2);
+        trainer.publishTo(liveNeuralNetwork);
+        trainer.train(samples.iterator());
+        trainer.getWeightsPublication().join();
+        assertArrayEquals(neuralNetwork.exportWeights(), liveNeuralNetwork.exportWeights());
+        final long liveWeightsVersion = liveNeuralNetwork.getWeightsVersion();
+        assertTrue(liveWeightsVersion == 1 || liveWeightsVersion == 2, String.valueOf(liveWeightsVersion));
+    }
+
+    @Test void testPublishWeightsDoesNotBlockTraining() {
+        final CountDownLatch listenerReleased = new CountDownLatch(1);
+        trainer.setWeightsPublishing(1);
+        trainer.addWeightsListener(weights -> {
+            try {
+                listenerReleased.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertEquals(NUMBER_OF_SAMPLES, trainer.train(samples.iterator()));
+        assertFalse(trainer.getWeightsPublication().isDone());
+        listenerReleased.countDown();
+        trainer.getWeightsPublication().join();
+    }
+
+    @Test void testSlowListenerReceivesOnlyNewestWeights() {
+        final CountDownLatch listenerReleased = new CountDownLatch(1);
+        final List<double[][]> receivedWeights = new ArrayList<>();
+        trainer.setWeightsPublishing(1);
+        trainer.addWeightsListener(weights -> {
+            try {
+                listenerReleased.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (receivedWeights) {
+                receivedWeights.add(weights);
+            }
+        });
+        trainer.train(samples.iterator());
+        listenerReleased.countDown();
+        trainer.getWeightsPublication().join();
+        synchronized (receivedWeights) {
+            assertTrue(receivedWeights.size() <= 2, String.valueOf(receivedWeights.size()));
+            assertArrayEquals(neuralNetwork.exportWeights(), receivedWeights.get(receivedWeights.size() - 1));
+        }
+    }
+
+    @Test void testRollingLossIsRecalculatedAfterEachWindow() {
+        final OnlineNeuralNetworkTrainer fixedTrainer = new OnlineNeuralNetworkTrainer(neuralNetwork, 0, 2);
+        final List<Double> inputs = List.of(1D, 0D);
+        fixedTrainer.train(Stream.of(Map.entry(inputs, List.of(1E10)), Map.entry(inputs, List.of(1E10)),
+                Map.entry(inputs, List.of(0D)), Map.entry(inputs, List.of(0D))));
+        final double response = neuralNetwork.calculateResponse(inputs).get(0);
+        assertEquals(MathOperations.squareValue(response) / 2D, fixedTrainer.getRollingLoss(), 1E-12);
+    }
+
+}
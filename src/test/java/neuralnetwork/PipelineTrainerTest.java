@@ -0,0 +1,117 @@
+package neuralnetwork;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineTrainerTest {
+
+    @Test void testPartitionLayers() {
+        assertArrayEquals(new int[] { 0, 2, 4 }, PipelineTrainer.partitionLayers(new long[] { 1, 1, 1, 1 }, 2));
+        assertArrayEquals(new int[] { 0, 3, 4 }, PipelineTrainer.partitionLayers(new long[] { 1, 1, 1, 100 }, 2));
+        assertArrayEquals(new int[] { 0, 1, 2, 3 }, PipelineTrainer.partitionLayers(new long[] { 100, 1, 1 }, 3));
+    }
+
+    @Test void testSingleSampleMatchesTrainingSampleBySample() {
+        final NeuralNetwork pipelined = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 3, 2, 6, 5, 4, 3);
+        final NeuralNetwork reference = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 3, 2, 6, 5, 4, 3);
+        final List<Double> inputs = List.of(0.1, 0.7, 0.4);
+        final List<Double> expectedValues = List.of(1D, 0D);
+        final PipelineTrainer pipelineTrainer = new PipelineTrainer(pipelined, 3);
+        final List<Double> rmses = pipelineTrainer.train(Map.of(inputs, expectedValues), 20, 0.5);
+        for (int i = 0; i < 20; ++i) {
+            final double rmse = reference.train(inputs, expectedValues, 0.5).stream()
+                    .mapToDouble(error -> error * error).sum() / 2D;
+            assertEquals(rmse, rmses.get(i), 1e-12);
+        }
+        final double[][] pipelinedWeights = pipelined.exportWeights();
+        final double[][] referenceWeights = reference.exportWeights();
+        for (int i = 0; i < referenceWeights.length; ++i) {
+            assertArrayEquals(referenceWeights[i], pipelinedWeights[i], 1e-12);
+        }
+    }
+
+    @Test void testSingleStageWithMicroBatchOfOneMatchesTrainingSampleBySample() {
+        final Random random = new Random(5L);
+        final Map<List<Double>, List<Double>> trainingMap = new HashMap<>();
+        for (int i = 0; i < 20; ++i) {
+            trainingMap.put(List.of(random.nextDouble(), random.nextDouble(), random.nextDouble()),
+                    i % 2 == 0 ? List.of(1D, 0D) : List.of(0D, 1D));
+        }
+        final NeuralNetwork pipelined = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 3, 2, 6, 5);
+        final NeuralNetwork reference = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 3, 2, 6, 5);
+        final PipelineTrainer pipelineTrainer = new PipelineTrainer(pipelined, 1);
+        pipelineTrainer.setMicroBatchSize(1);
+        pipelineTrainer.setShuffleSeed(6L);
+        final List<Double> rmses = pipelineTrainer.train(trainingMap, 5, 0.5);
+        final List<Entry<List<Double>, List<Double>>> samples = new ArrayList<>(trainingMap.size());
+        trainingMap.forEach((inputs, expectedValues) -> samples.add(Map.entry(inputs, expectedValues)));
+        final Random shuffleRandom = new Random(6L);
+        for (int i = 0; i < 5; ++i) {
+            Collections.shuffle(samples, shuffleRandom);
+            final double rmse = samples.stream()
+                    .mapToDouble(sample -> reference.train(sample.getKey(), sample.getValue(), 0.5).stream()
+                            .mapToDouble(error -> error * error).sum())
+                    .sum() / 2D;
+            assertEquals(rmse, rmses.get(i), 1e-12);
+        }
+        final double[][] pipelinedWeights = pipelined.exportWeights();
+        final double[][] referenceWeights = reference.exportWeights();
+        for (int i = 0; i < referenceWeights.length; ++i) {
+            assertArrayEquals(referenceWeights[i], pipelinedWeights[i], 1e-12);
+        }
+    }
+
+    @Test void testDeepNetworkLearns() {
+        final Random random = new Random(2L);
+        final Map<List<Double>, List<Double>> trainingMap = new HashMap<>();
+        for (int i = 0; i < 200; ++i) {
+            final double x = random.nextDouble();
+            final double y = random.nextDouble();
+            trainingMap.put(List.of(x, y), x > y ? List.of(1D, 0D) : List.of(0D, 1D));
+        }
+        final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 2, 2, 16, 16, 16);
+        final PipelineTrainer pipelineTrainer = new PipelineTrainer(neuralNetwork, 4);
+        pipelineTrainer.setMicroBatchSize(4);
+        pipelineTrainer.setShuffleSeed(4L);
+        final List<Double> rmses = pipelineTrainer.train(trainingMap, 100, 0.5);
+        assertEquals(100, rmses.size());
+        assertTrue(rmses.get(99) < rmses.get(0) / 2D);
+        final long correct = trainingMap.entrySet().stream().filter(entry -> {
+            final List<Double> response = neuralNetwork.calculateResponse(entry.getKey());
+            return (response.get(0) > response.get(1)) == (entry.getValue().get(0) > entry.getValue().get(1));
+        }).count();
+        assertTrue(correct > 180);
+    }
+
+    @Test void testFailedTrainingChangesWeightsVersion() {
+        final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 3, 2, 6, 5);
+        final PipelineTrainer trainer = new PipelineTrainer(neuralNetwork, 2);
+        final long weightsVersion = neuralNetwork.getWeightsVersion();
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(IllegalStateException.class,
+                    () -> trainer.train(Map.of(List.of(0.1, 0.7, 0.4), List.of(1D, 0D)), 1, 0.5));
+        } finally {
+            Thread.interrupted();
+        }
+        assertTrue(neuralNetwork.getWeightsVersion() > weightsVersion);
+    }
+
+    @Test void testTooManyStagesThrowsIllegalArgumentException() {
+        final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 3, 2, 4);
+        assertThrows(IllegalArgumentException.class, () -> new PipelineTrainer(neuralNetwork, 3));
+    }
+
+}
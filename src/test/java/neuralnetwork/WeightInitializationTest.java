@@ -0,0 +1,40 @@
+package neuralnetwork;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class WeightInitializationTest {
+
+    private static final long SEED = 18277L;
+    private final List<Double> inputs = List.of(0.5, -1D, 2D, 0.25);
+
+    @Test void testWeightBound() {
+        final double resultAccuracy = 0.0001;
+        assertEquals(0.1, WeightInitialization.UNIFORM.weightBound(400, 50), resultAccuracy);
+        assertEquals(0.1155, WeightInitialization.XAVIER.weightBound(400, 50), resultAccuracy);
+        assertEquals(0.1225, WeightInitialization.HE.weightBound(400, 50), resultAccuracy);
+    }
+
+    @Test void testBiasBound() {
+        assertEquals(0.1, WeightInitialization.UNIFORM.biasBound());
+        assertEquals(0D, WeightInitialization.XAVIER.biasBound());
+        assertEquals(0D, WeightInitialization.HE.biasBound());
+    }
+
+    @Test void testNetworksWithSameSeedHaveSameResponse() {
+        final NeuralNetwork network = new NeuralNetwork(WeightInitialization.XAVIER, SEED, inputs.size(), 3, 8, 8);
+        final NeuralNetwork sameNetwork = new NeuralNetwork(WeightInitialization.XAVIER, SEED, inputs.size(), 3, 8, 8);
+        assertEquals(network.calculateResponse(inputs), sameNetwork.calculateResponse(inputs));
+    }
+
+    @Test void testNetworksWithDifferentSeedsHaveDifferentResponse() {
+        final NeuralNetwork network = new NeuralNetwork(WeightInitialization.HE, SEED, inputs.size(), 3, 8);
+        final NeuralNetwork otherNetwork = new NeuralNetwork(WeightInitialization.HE, SEED + 1, inputs.size(), 3, 8);
+        assertNotEquals(network.calculateResponse(inputs), otherNetwork.calculateResponse(inputs));
+    }
+
+}
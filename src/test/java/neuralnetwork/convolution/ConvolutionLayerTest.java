@@ -0,0 +1,123 @@
+package neuralnetwork.convolution;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.WeightInitialization;
+import neuralnetwork.helpers.MathOperations;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConvolutionLayerTest {
+
+    private static final double EPSILON = 1e-6;
+
+    @Test void testOutputDimensions() {
+        final ConvolutionLayer layer = new ConvolutionLayer(20, 20, 1, 4, 5, 3);
+        assertEquals(6, layer.getOutputWidth());
+        assertEquals(6, layer.getOutputHeight());
+        assertEquals(4, layer.getOutputChannels());
+        assertEquals(25, layer.getFanIn());
+        assertEquals(144, layer.getOutputSize());
+    }
+
+    @Test void testCalculateResponses() {
+        final ConvolutionLayer layer = new ConvolutionLayer(3, 2, 1, 1, 2);
+        layer.configureWeights(new double[] { 1, 2, 3, 4, 0.5 });
+        final double[] responses = layer.calculateResponses(new double[] { 1, 0, 1, 0, 1, 1 });
+        assertArrayEquals(new double[] { MathOperations.sigmoid(1 + 4 + 0.5), MathOperations.sigmoid(2 + 3 + 4 + 0.5) },
+                responses, 1e-12);
+    }
+
+    @Test void testBackpropagateMatchesNumericalGradient() {
+        final ConvolutionLayer layer = new ConvolutionLayer(5, 4, 2, 3, 2, 2);
+        final Random random = new Random(11L);
+        final double[] weights = random.doubles(3 * 9, -1, 1).toArray();
+        final double[] inputs = random.doubles(layer.getInputSize()).toArray();
+        final double[] expected = random.doubles(layer.getOutputSize()).toArray();
+        final double[] adjustedWeights = weights.clone();
+        layer.configureWeights(adjustedWeights);
+        final double[] responses = layer.calculateResponses(inputs);
+        final double[] errors = new double[responses.length];
+        for (int i = 0; i < errors.length; ++i) {
+            errors[i] = expected[i] - responses[i];
+        }
+        final double[] inputErrors = layer.backpropagate(inputs, responses, errors, 1D);
+        layer.configureWeights(weights);
+        final double loss = loss(layer, inputs, expected);
+        for (int i = 0; i < weights.length; ++i) {
+            final double[] shiftedWeights = weights.clone();
+            shiftedWeights[i] += EPSILON;
+            layer.configureWeights(shiftedWeights);
+            assertEquals(-(loss(layer, inputs, expected) - loss) / EPSILON, adjustedWeights[i] - weights[i], 1e-4);
+        }
+        layer.configureWeights(weights);
+        for (int i = 0; i < inputs.length; ++i) {
+            final double[] shiftedInputs = inputs.clone();
+            shiftedInputs[i] += EPSILON;
+            assertEquals(-(loss(layer, shiftedInputs, expected) - loss) / EPSILON, inputErrors[i], 1e-4);
+        }
+    }
+
+    @Test void testNetworkWithConvolutionLearnsLineOrientation() {
+        final NeuralNetwork network = new NeuralNetwork(WeightInitialization.XAVIER, 5L,
+                List.of(new ConvolutionLayer(6, 6, 1, 2, 3), new PoolingLayer(4, 4, 2, 2, PoolingLayer.Type.MAX)), 2,
+                4);
+        final List<List<Double>> images = new ArrayList<>();
+        final List<List<Double>> labels = new ArrayList<>();
+        for (int line = 0; line < 6; ++line) {
+            images.add(createLineImage(line, true));
+            labels.add(List.of(1D, 0D));
+            images.add(createLineImage(line, false));
+            labels.add(List.of(0D, 1D));
+        }
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < images.size(); ++i) {
+            order.add(i);
+        }
+        final Random random = new Random(3L);
+        for (int iteration = 0; iteration < 500; ++iteration) {
+            Collections.shuffle(order, random);
+            order.forEach(i -> network.train(images.get(i), labels.get(i), 0.5));
+        }
+        final List<List<Double>> responses = network.calculateResponses(images);
+        for (int i = 0; i < images.size(); ++i) {
+            final List<Double> response = network.calculateResponse(images.get(i));
+            assertEquals(labels.get(i).get(0) > 0.5, response.get(0) > response.get(1));
+            assertEquals(response.get(0), responses.get(i).get(0), 1e-12);
+        }
+    }
+
+    @Test void testKernelLargerThanInputThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new ConvolutionLayer(3, 3, 1, 1, 4));
+    }
+
+    @Test void testWrongNumberOfWeightsThrows() {
+        final ConvolutionLayer layer = new ConvolutionLayer(3, 3, 1, 2, 2);
+        assertThrows(IllegalArgumentException.class, () -> layer.configureWeights(new double[5]));
+    }
+
+    private static List<Double> createLineImage(final int line, final boolean horizontal) {
+        final List<Double> image = new ArrayList<>(Collections.nCopies(36, 0D));
+        for (int i = 0; i < 6; ++i) {
+            image.set(horizontal ? line * 6 + i : i * 6 + line, 1D);
+        }
+        return image;
+    }
+
+    private static double loss(final ConvolutionLayer layer, final double[] inputs, final double[] expected) {
+        final double[] responses = layer.calculateResponses(inputs);
+        double loss = 0D;
+        for (int i = 0; i < responses.length; ++i) {
+            loss += MathOperations.squareValue(expected[i] - responses[i]) / 2D;
+        }
+        return loss;
+    }
+
+}
@@ -0,0 +1,40 @@
+package neuralnetwork.convolution;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PoolingLayerTest {
+
+    private static final double[] INPUTS = { 1, 2, 5, 0, 9, 4, 3, 8, 6, 7, 2, 1 };
+
+    @Test void testOutputDimensionsSkipIncompleteWindows() {
+        final PoolingLayer layer = new PoolingLayer(3, 2, 2, 2, PoolingLayer.Type.MAX);
+        assertEquals(1, layer.getOutputWidth());
+        assertEquals(1, layer.getOutputHeight());
+        assertEquals(2, layer.getOutputSize());
+    }
+
+    @Test void testMaxPooling() {
+        final PoolingLayer layer = new PoolingLayer(3, 2, 2, 2, PoolingLayer.Type.MAX);
+        assertArrayEquals(new double[] { 9, 8 }, layer.calculateResponses(INPUTS));
+        assertArrayEquals(new double[] { 0, 0, 0, 0, 0.5, 0, 0, -1, 0, 0, 0, 0 },
+                layer.backpropagate(INPUTS, new double[] { 9, 8 }, new double[] { 0.5, -1 }, 0.1));
+    }
+
+    @Test void testAveragePooling() {
+        final PoolingLayer layer = new PoolingLayer(3, 2, 2, 2, PoolingLayer.Type.AVERAGE);
+        assertArrayEquals(new double[] { 3, 5 }, layer.calculateResponses(INPUTS));
+        assertArrayEquals(new double[] { 0.25, 0.25, 0, 0.25, 0.25, 0, 1, 1, 0, 1, 1, 0 },
+                layer.backpropagate(INPUTS, new double[] { 3, 5 }, new double[] { 1, 4 }, 0.1));
+    }
+
+    @Test void testPoolingLayerHasNoWeights() {
+        final PoolingLayer layer = new PoolingLayer(4, 4, 1, 2, PoolingLayer.Type.MAX);
+        assertEquals(0, layer.getNumberOfWeightRows());
+        assertThrows(IllegalArgumentException.class, () -> layer.configureWeights(new double[1]));
+    }
+
+}
@@ -0,0 +1,129 @@
+package neuralnetwork.distributed;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.WeightInitialization;
+import neuralnetwork.helpers.WeightOperations;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.shuffle;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParameterServerTest {
+
+    private static final int NUMBER_OF_ITERATIONS = 500;
+    private final Map<List<Double>, List<Double>> firstShard = Map.of(List.of(0D, 0D), List.of(0D), List.of(0D, 1D),
+            List.of(1D));
+    private final Map<List<Double>, List<Double>> secondShard = Map.of(List.of(1D, 0D), List.of(1D),
+            List.of(1D, 1D), List.of(0D));
+
+    @Test void testSynchronousTraining() throws Exception {
+        trainOnTwoWorkers(0);
+    }
+
+    @Test void testAsynchronousTrainingWithBoundedStaleness() throws Exception {
+        trainOnTwoWorkers(3);
+    }
+
+    @Test void testSynchronousTrainingAppliesEachIterationAtOnce() throws Exception {
+        final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 1, 4);
+        final List<Map<List<Double>, List<Double>>> shards = List.of(firstShard, secondShard);
+        final double[][] expectedWeights = neuralNetwork.exportWeights();
+        final List<NeuralNetwork> replicas = List.of(new NeuralNetwork(2, 1, 4), new NeuralNetwork(2, 1, 4));
+        final List<List<List<Double>>> inputs = List.of(new ArrayList<>(firstShard.keySet()),
+                new ArrayList<>(secondShard.keySet()));
+        final List<Random> shuffleRandoms = List.of(new Random(10L), new Random(11L));
+        for (int iteration = 0; iteration < 20; ++iteration) {
+            final List<double[][]> differences = new ArrayList<>();
+            for (int worker = 0; worker < 2; ++worker) {
+                final NeuralNetwork replica = replicas.get(worker);
+                replica.importWeights(expectedWeights);
+                for (final List<Double> input : inputs.get(worker)) {
+                    replica.train(input, shards.get(worker).get(input), 1);
+                }
+                shuffle(inputs.get(worker), shuffleRandoms.get(worker));
+                differences.add(WeightOperations.subtractWeights(replica.exportWeights(), expectedWeights));
+            }
+            differences.forEach(difference -> WeightOperations.addScaledWeights(expectedWeights, difference, 0.5));
+        }
+        try (ParameterServer server = new ParameterServer(neuralNetwork, 0, 2, 0);
+                ParameterServerWorker firstWorker = new ParameterServerWorker("localhost", server.getPort(),
+                        new NeuralNetwork(2, 1, 4), firstShard, 1);
+                ParameterServerWorker secondWorker = new ParameterServerWorker("localhost", server.getPort(),
+                        new NeuralNetwork(2, 1, 4), secondShard, 1)) {
+            firstWorker.setShuffleSeed(10L);
+            secondWorker.setShuffleSeed(11L);
+            final CompletableFuture<List<Double>> firstRmses = CompletableFuture.supplyAsync(() -> train(firstWorker));
+            final CompletableFuture<List<Double>> secondRmses = CompletableFuture
+                    .supplyAsync(() -> train(secondWorker));
+            firstRmses.join();
+            secondRmses.join();
+            final double[][] weights = server.getWeights();
+            for (int i = 0; i < expectedWeights.length; ++i) {
+                assertArrayEquals(expectedWeights[i], weights[i]);
+            }
+        }
+    }
+
+    @Test void testFinishedWorkerIsNotWaitedFor() throws Exception {
+        final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 1, 4);
+        try (ParameterServer server = new ParameterServer(neuralNetwork, 0, 2, 2);
+                ParameterServerWorker firstWorker = new ParameterServerWorker("localhost", server.getPort(),
+                        new NeuralNetwork(2, 1, 4), firstShard, 1);
+                ParameterServerWorker secondWorker = new ParameterServerWorker("localhost", server.getPort(),
+                        new NeuralNetwork(2, 1, 4), secondShard, 1)) {
+            assertEquals(2, firstWorker.train(2).size());
+            final List<Double> secondRmses = CompletableFuture.supplyAsync(() -> train(secondWorker)).get(10,
+                    TimeUnit.SECONDS);
+            assertEquals(20, secondRmses.size());
+            assertEquals(22, server.getNumberOfUpdates());
+            assertThrows(IllegalStateException.class, () -> firstWorker.train(1));
+        }
+    }
+
+    private void trainOnTwoWorkers(final int maxStaleness) throws Exception {
+        final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 1, 4);
+        final double[][] initialWeights = neuralNetwork.exportWeights();
+        try (ParameterServer server = new ParameterServer(neuralNetwork, 0, 2, maxStaleness)) {
+            final CompletableFuture<List<Double>> firstWorker = CompletableFuture
+                    .supplyAsync(() -> train(server.getPort(), firstShard));
+            final CompletableFuture<List<Double>> secondWorker = CompletableFuture
+                    .supplyAsync(() -> train(server.getPort(), secondShard));
+            final List<Double> firstRmses = firstWorker.join();
+            final List<Double> secondRmses = secondWorker.join();
+            assertEquals(NUMBER_OF_ITERATIONS, firstRmses.size());
+            assertTrue(firstRmses.get(NUMBER_OF_ITERATIONS - 1) < firstRmses.get(0));
+            assertTrue(secondRmses.get(NUMBER_OF_ITERATIONS - 1) < secondRmses.get(0));
+            assertEquals(2 * NUMBER_OF_ITERATIONS, server.getNumberOfUpdates());
+            assertTrue(initialWeights[0][0] != server.getWeights()[0][0]);
+        }
+    }
+
+    private static List<Double> train(final ParameterServerWorker worker) {
+        try {
+            return worker.train(20);
+        } catch (final IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static List<Double> train(final int port, final Map<List<Double>, List<Double>> shard) {
+        final NeuralNetwork replica = new NeuralNetwork(2, 1, 4);
+        try (ParameterServerWorker worker = new ParameterServerWorker("localhost", port, replica, shard, 1)) {
+            return worker.train(NUMBER_OF_ITERATIONS);
+        } catch (final IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+}
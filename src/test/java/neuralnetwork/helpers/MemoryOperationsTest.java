@@ -0,0 +1,36 @@
+package neuralnetwork.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemoryOperationsTest {
+
+    private final Map<List<Double>, List<Double>> dataset = Map.of(List.of(0D, 1D), List.of(1D),
+            List.of(1D, 0D), List.of(0D), List.of(1D, 1D), List.of(1D));
+
+    @Test void testMapBytesOfImmutableMap() {
+        assertEquals(0, MemoryOperations.mapBytes(Map.of()));
+        assertEquals(MemoryOperations.objectBytes(2, 0), MemoryOperations.mapBytes(Map.of(1, 2)));
+        assertEquals(MemoryOperations.immutableMapBytes(dataset.size()), MemoryOperations.mapBytes(dataset));
+        assertTrue(MemoryOperations.mapBytes(dataset) < MemoryOperations.mapBytes(new HashMap<>(dataset)));
+    }
+
+    @Test void testMapBytesOfHashMap() {
+        assertEquals(MemoryOperations.hashMapBytes(dataset.size()), MemoryOperations.mapBytes(new HashMap<>(dataset)));
+        assertTrue(MemoryOperations.mapBytes(new LinkedHashMap<>(dataset))
+                > MemoryOperations.mapBytes(new HashMap<>(dataset)));
+    }
+
+    @Test void testHashMapBytesWithInitialCapacity() {
+        assertEquals(MemoryOperations.hashMapBytes(100), MemoryOperations.hashMapBytes(100, 16));
+        assertTrue(MemoryOperations.hashMapBytes(100, 300) > MemoryOperations.hashMapBytes(100));
+    }
+
+}
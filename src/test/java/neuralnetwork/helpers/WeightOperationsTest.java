@@ -0,0 +1,56 @@
+package neuralnetwork.helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WeightOperationsTest {
+
+    private final double[][] weights = { { 1, 2, 3 }, IntStream.range(0, 10000).mapToDouble(i -> i / 3D).toArray() };
+
+    @Test void testWriteAndReadWeights() throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        WeightOperations.writeWeights(new DataOutputStream(byteArrayOutputStream), weights);
+        final double[][] readWeights = WeightOperations.readWeights(
+                new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray())));
+        assertArrayEquals(weights, readWeights);
+        assertEquals(Integer.BYTES * 3 + Double.BYTES * 10003, byteArrayOutputStream.size());
+    }
+
+    @Test void testReadWeightsOfUnexpectedShapeThrowsIOException() throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(byteArrayOutputStream);
+        output.writeInt(2);
+        output.writeInt(Integer.MAX_VALUE - 8);
+        assertThrows(IOException.class, () -> WeightOperations.readWeights(
+                new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray())), weights));
+    }
+
+    @Test void testSubtractWeights() {
+        final double[][] difference = WeightOperations.subtractWeights(new double[][] { { 5, 7 } },
+                new double[][] { { 2, 10 } });
+        assertArrayEquals(new double[] { 3, -3 }, difference[0]);
+    }
+
+    @Test void testAddScaledWeights() {
+        final double[][] target = { { 1, 1 } };
+        WeightOperations.addScaledWeights(target, new double[][] { { 2, -4 } }, 0.5);
+        assertArrayEquals(new double[] { 2, -1 }, target[0]);
+    }
+
+    @Test void testCopyWeights() {
+        final double[][] copy = WeightOperations.copyWeights(weights);
+        copy[0][0] = 100;
+        assertEquals(1, weights[0][0]);
+    }
+
+}
@@ -0,0 +1,99 @@
+package neuralnetwork.inference;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.WeightInitialization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InferenceServerTest {
+
+    private static final int MAX_BATCH_SIZE = 8;
+    private final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 3, 2, 4);
+    private final List<List<Double>> inputs = IntStream.range(0, 100)
+            .mapToObj(i -> List.of(i / 100D, 1 - i / 100D, 0.5)).collect(toList());
+    private InferenceServer server;
+
+    @BeforeEach void startServer() throws IOException {
+        server = new InferenceServer(neuralNetwork, 0, MAX_BATCH_SIZE, Duration.ofMillis(5), 4);
+    }
+
+    @AfterEach void stopServer() {
+        server.close();
+    }
+
+    @Test void testSubmit() {
+        final List<CompletableFuture<List<Double>>> responses = inputs.stream().map(server::submit)
+                .collect(toList());
+        final List<List<Double>> expectedResponses = neuralNetwork.calculateResponses(inputs);
+        for (int i = 0; i < inputs.size(); ++i) {
+            assertEquals(expectedResponses.get(i), responses.get(i).join());
+        }
+        assertEquals(inputs.size(), server.getLatencyRecorder().count());
+    }
+
+    @Test void testBatchSizesHistogram() {
+        inputs.stream().map(server::submit).collect(toList()).forEach(CompletableFuture::join);
+        final long[] histogram = server.getBatchSizesHistogram();
+        assertEquals(MAX_BATCH_SIZE + 1, histogram.length);
+        assertEquals(inputs.size(),
+                IntStream.range(0, histogram.length).mapToLong(size -> size * histogram[size]).sum());
+    }
+
+    @Test void testBatchCanHoldMoreRequestsThanRequestThreads() throws IOException {
+        try (InferenceServer singleThreadServer = new InferenceServer(neuralNetwork, 0, MAX_BATCH_SIZE,
+                Duration.ofMillis(200), 1)) {
+            final HttpClient client = HttpClient.newHttpClient();
+            final HttpRequest request = HttpRequest
+                    .newBuilder(URI.create("http://localhost:" + singleThreadServer.getPort() + "/predict"))
+                    .POST(HttpRequest.BodyPublishers.ofString("0.1,0.2,0.3")).build();
+            final List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, MAX_BATCH_SIZE)
+                    .mapToObj(i -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString())).collect(toList());
+            responses.forEach(response -> assertEquals(200, response.join().statusCode()));
+            final long[] histogram = singleThreadServer.getBatchSizesHistogram();
+            assertTrue(IntStream.range(2, histogram.length).anyMatch(size -> histogram[size] > 0),
+                    Arrays.toString(histogram));
+        }
+    }
+
+    @Test void testCloseAnswersWaitingHttpRequests() throws Exception {
+        final InferenceServer slowServer = new InferenceServer(neuralNetwork, 0, MAX_BATCH_SIZE,
+                Duration.ofSeconds(10), 1);
+        final HttpRequest request = HttpRequest
+                .newBuilder(URI.create("http://localhost:" + slowServer.getPort() + "/predict"))
+                .POST(HttpRequest.BodyPublishers.ofString("0.1,0.2,0.3")).build();
+        final CompletableFuture<HttpResponse<String>> response = HttpClient.newHttpClient().sendAsync(request,
+                HttpResponse.BodyHandlers.ofString());
+        Thread.sleep(300);
+        slowServer.close();
+        assertEquals(503, response.join().statusCode());
+        assertEquals("Server closed!", response.join().body());
+    }
+
+    @Test void testSubmitAfterCloseThrowsRejectedExecutionException() {
+        server.close();
+        assertThrows(RejectedExecutionException.class, () -> server.submit(inputs.get(0)));
+    }
+
+    @Test void testSubmitWithWrongSizeThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> server.submit(List.of(1D)));
+    }
+
+}
@@ -0,0 +1,36 @@
+package neuralnetwork.inference;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LatencyRecorderTest {
+
+    @Test void testPercentiles() {
+        final LatencyRecorder latencyRecorder = new LatencyRecorder(1000);
+        LongStream.rangeClosed(1, 1000).forEach(latencyRecorder::record);
+        assertArrayEquals(new long[] { 500, 990, 999, 1000 }, latencyRecorder.percentiles(50, 99, 99.9, 100));
+        assertEquals(1, latencyRecorder.percentile(0));
+    }
+
+    @Test void testKeepsOnlyMostRecentLatencies() {
+        final LatencyRecorder latencyRecorder = new LatencyRecorder(10);
+        LongStream.rangeClosed(1, 100).forEach(latencyRecorder::record);
+        assertEquals(100, latencyRecorder.count());
+        assertEquals(90, latencyRecorder.dropped());
+        assertEquals(91, latencyRecorder.percentile(0));
+    }
+
+    @Test void testPercentileWithoutLatencies() {
+        assertEquals(0, new LatencyRecorder(10).percentile(50));
+    }
+
+    @Test void testPercentileOutOfRangeThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyRecorder(10).percentile(101));
+    }
+
+}
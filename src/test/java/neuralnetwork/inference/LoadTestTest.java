@@ -0,0 +1,65 @@
+package neuralnetwork.inference;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.WeightInitialization;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadTestTest {
+
+    private final LoadTest loadTest = new LoadTest(new NeuralNetwork(WeightInitialization.XAVIER, 1L, 3, 2, 4));
+
+    @Test void testClosedLoop() throws InterruptedException {
+        loadTest.setConcurrency(2);
+        loadTest.setBatchSize(4);
+        loadTest.setDuration(Duration.ofMillis(200));
+        loadTest.setWarmUp(Duration.ofMillis(50));
+        final LoadTestResult result = loadTest.run();
+        assertTrue(result.getNumberOfRequests() > 0);
+        assertEquals(0, result.getNumberOfErrors());
+        assertEquals(4 * result.getRequestsPerSecond(), result.getSamplesPerSecond(), 1e-6);
+        assertTrue(result.getP50Nanos() <= result.getP99Nanos());
+        assertTrue(result.getP99Nanos() <= result.getP999Nanos());
+        assertTrue(result.getAllocatedBytes() > 0);
+    }
+
+    @Test void testOpenLoop() throws InterruptedException {
+        loadTest.setRequestRate(500);
+        loadTest.setDuration(Duration.ofMillis(200));
+        loadTest.setWarmUp(Duration.ZERO);
+        final LoadTestResult result = loadTest.run();
+        assertEquals(100, result.getNumberOfRequests());
+        assertEquals(0, result.getNumberOfDroppedLatencies());
+        final String json = result.toJson();
+        for (final String field : new String[] { "\"requestsPerSecond\"", "\"p99\"", "\"droppedLatencies\"",
+                "\"allocatedBytes\"", "\"gcTimeMillis\"" }) {
+            assertTrue(json.contains(field), field);
+        }
+    }
+
+    @Test void testClosedLoopCompletesWhenRequestThrowsError() throws InterruptedException {
+        final LoadTest failingLoadTest = new LoadTest(new NeuralNetwork(WeightInitialization.XAVIER, 1L, 3, 2, 4) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public List<List<Double>> calculateResponses(final List<List<Double>> inputs) {
+                throw new AssertionError();
+            }
+        });
+        failingLoadTest.setDuration(Duration.ofMillis(50));
+        failingLoadTest.setWarmUp(Duration.ZERO);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), failingLoadTest::run);
+    }
+
+    @Test void testNonPositiveConcurrencyThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> loadTest.setConcurrency(0));
+    }
+
+}
@@ -0,0 +1,95 @@
+package neuralnetwork.inference;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.NeuralNetworkTrainer;
+import neuralnetwork.WeightInitialization;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+
+    private final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 1, 3);
+    private final List<Double> inputs = List.of(0.25, 0.75);
+    private final List<Double> otherInputs = List.of(0.75, 0.25);
+
+    @Test void testCalculateResponse() {
+        final ResponseCache cache = new ResponseCache(neuralNetwork, 10);
+        final List<Double> response = cache.calculateResponse(inputs);
+        assertEquals(response, cache.calculateResponse(List.of(0.25, 0.75)));
+        assertEquals(neuralNetwork.calculateResponse(inputs), response);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test void testEvictsLeastRecentlyUsedResponse() {
+        final ResponseCache cache = new ResponseCache(neuralNetwork, 2);
+        cache.calculateResponse(inputs);
+        cache.calculateResponse(otherInputs);
+        cache.calculateResponse(inputs);
+        cache.calculateResponse(List.of(0D, 0D));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        cache.calculateResponse(inputs);
+        assertEquals(2, cache.hits());
+    }
+
+    @Test void testHitDoesNotWaitForMiss() throws InterruptedException {
+        final CountDownLatch missStarted = new CountDownLatch(1);
+        final CountDownLatch hitReturned = new CountDownLatch(1);
+        final NeuralNetwork slowNeuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 1L, 2, 1, 3) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public List<Double> calculateResponse(final List<Double> inputs) {
+                if (inputs.equals(otherInputs)) {
+                    missStarted.countDown();
+                    try {
+                        hitReturned.await(10, TimeUnit.SECONDS);
+                    } catch (final InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.calculateResponse(inputs);
+            }
+        };
+        final ResponseCache cache = new ResponseCache(slowNeuralNetwork, 10);
+        cache.calculateResponse(inputs);
+        final CompletableFuture<List<Double>> miss = CompletableFuture
+                .supplyAsync(() -> cache.calculateResponse(otherInputs));
+        assertTrue(missStarted.await(10, TimeUnit.SECONDS));
+        cache.calculateResponse(inputs);
+        assertFalse(miss.isDone());
+        hitReturned.countDown();
+        miss.join();
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.size());
+    }
+
+    @Test void testInvalidatesAfterTraining() {
+        final ResponseCache cache = new ResponseCache(neuralNetwork, 10);
+        final List<Double> response = cache.calculateResponse(inputs);
+        neuralNetwork.train(inputs, List.of(1D), 1);
+        assertNotEquals(response, cache.calculateResponse(inputs));
+        assertEquals(2, cache.misses());
+    }
+
+    @Test void testInvalidatesAfterRestoringNetwork() {
+        final NeuralNetworkTrainer trainer = new NeuralNetworkTrainer(neuralNetwork, Map.of(), Map.of(), 1, 1);
+        final ResponseCache cache = new ResponseCache(trainer::getNeuralNetwork, 10);
+        cache.calculateResponse(inputs);
+        trainer.restoreNeuralNetwork();
+        cache.calculateResponse(inputs);
+        assertEquals(2, cache.misses());
+    }
+
+}
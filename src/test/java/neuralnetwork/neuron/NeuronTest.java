@@ -1,6 +1,5 @@
 package neuralnetwork.neuron;
 
-import fakes.FakeMap;
 import fakes.FakeMathOperations;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -47,9 +47,26 @@ public class NeuronTest {
     }
 
     @Test void testAdjustWeights() {
-        final FakeMap<ResponseProvider, Double> map = new FakeMap<>();
-        neuron.adjustWeights(0);
-        assertEquals(previousNeurons.size(), map.timeReplaceCalled());
+        final double learningRate = 0.5;
+        final double adjustedWeight = 1 + ERROR * RESPONSE * learningRate;
+        final double adjustedBias = BIAS + ERROR * learningRate;
+        neuron.setError(ERROR);
+        neuron.adjustWeights(learningRate);
+        neuron.calculateResponse();
+        assertEquals(adjustedBias + (previousNeurons.size() * RESPONSE * adjustedWeight), neuron.getResponse());
+    }
+
+    @Test void testConfigurePreviousNeuronsWithSharedWeights() {
+        final double[] weights = { 9, 9, 3, 4, 5, 9 };
+        neuron.configurePreviousNeurons(new PreviousLayer(previousNeurons), weights, 2);
+        neuron.calculateResponse();
+        assertEquals(5 + (3 + 4) * RESPONSE, neuron.getResponse());
+    }
+
+    @Test void testConfigurePreviousNeuronsWithTooShortWeightsThrowsIllegalArgumentException() {
+        final double[] weights = { 1, 2 };
+        assertThrows(IllegalArgumentException.class,
+                () -> neuron.configurePreviousNeurons(new PreviousLayer(previousNeurons), weights, 0));
     }
 
     @Test void testScaledError() {
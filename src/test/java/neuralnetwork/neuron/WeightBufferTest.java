@@ -0,0 +1,75 @@
+package neuralnetwork.neuron;
+
+import neuralnetwork.helpers.WeightOperations;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightBufferTest {
+
+    @Test void testWrapSharesArray() {
+        final double[] weights = { 1, 2, 3 };
+        final WeightBuffer buffer = WeightBuffer.wrap(weights);
+        buffer.add(1, 0.5);
+        buffer.set(2, 7);
+        assertFalse(buffer.isDirect());
+        assertArrayEquals(new double[] { 1, 2.5, 7 }, weights);
+    }
+
+    @Test void testDirectBuffer() {
+        final WeightBuffer buffer = WeightBuffer.allocateDirect(3);
+        buffer.copyFrom(new double[] { 1, 2, 3 });
+        buffer.add(0, 1);
+        assertTrue(buffer.isDirect());
+        assertEquals(3, buffer.size());
+        assertArrayEquals(new double[] { 2, 2, 3 }, buffer.toArray());
+        assertThrows(IllegalArgumentException.class, () -> buffer.copyFrom(new double[2]));
+    }
+
+    @Test void testWriteIsReadableAsWeights() throws IOException {
+        final WeightBuffer buffer = WeightBuffer.allocateDirect(10000);
+        for (int i = 0; i < buffer.size(); ++i) {
+            buffer.set(i, i / 3D);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(1);
+        output.writeInt(buffer.size());
+        buffer.write(output);
+        final double[][] weights = WeightOperations
+                .readWeights(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertArrayEquals(buffer.toArray(), weights[0]);
+    }
+
+    @Test void testSerializationKeepsKindAndSharing() throws IOException, ClassNotFoundException {
+        final WeightBuffer direct = WeightBuffer.allocateDirect(9000);
+        direct.set(8999, 4);
+        final WeightBuffer heap = WeightBuffer.wrap(new double[] { 5, 6 });
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(new WeightBuffer[] { direct, heap, direct });
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final WeightBuffer[] buffers = (WeightBuffer[]) input.readObject();
+            assertTrue(buffers[0].isDirect());
+            assertArrayEquals(direct.toArray(), buffers[0].toArray());
+            assertFalse(buffers[1].isDirect());
+            assertArrayEquals(heap.toArray(), buffers[1].toArray());
+            assertSame(buffers[0], buffers[2]);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package neuralnetwork.profiling;
+
+import neuralnetwork.NeuralNetwork;
+import neuralnetwork.WeightInitialization;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayerProfilerTest {
+
+    private final NeuralNetwork neuralNetwork = new NeuralNetwork(WeightInitialization.XAVIER, 3L, 4, 2, 3);
+    private final LayerProfiler profiler = new LayerProfiler();
+
+    @Test void testNoStatisticsWithoutMeasurements() {
+        assertTrue(profiler.getStatistics().isEmpty());
+    }
+
+    @Test void testRecordsForwardPhaseOfEachLayer() {
+        neuralNetwork.setProfiler(profiler);
+        neuralNetwork.calculateResponse(List.of(0.1, 0.2, 0.3, 0.4));
+        final List<LayerStatistics> statistics = profiler.getStatistics();
+        assertEquals(2, statistics.size());
+        assertEquals(0, statistics.get(0).getLayer());
+        assertEquals(LayerPhase.FORWARD, statistics.get(0).getPhase());
+        assertEquals(1, statistics.get(0).getCount());
+        assertEquals(2L * 3 * 5, statistics.get(0).getFlops());
+        assertEquals(2L * 2 * 4, statistics.get(1).getFlops());
+    }
+
+    @Test void testRecordsAllPhasesWhenTraining() {
+        neuralNetwork.setProfiler(profiler);
+        neuralNetwork.train(List.of(0.1, 0.2, 0.3, 0.4), List.of(1D, 0D), 0.1);
+        neuralNetwork.train(List.of(0.1, 0.2, 0.3, 0.4), List.of(1D, 0D), 0.1);
+        final List<LayerStatistics> statistics = profiler.getStatistics();
+        assertEquals(6, statistics.size());
+        statistics.forEach(layerStatistics -> assertEquals(2, layerStatistics.getCount()));
+        assertEquals(2L * (2 * 3 * 2 + 3 * 3), statistics.get(1).getFlops());
+    }
+
+    @Test void testBatchFlopsScaleWithBatchSize() {
+        neuralNetwork.setProfiler(profiler);
+        neuralNetwork.calculateResponses(List.of(List.of(0D, 0D, 0D, 0D), List.of(1D, 1D, 1D, 1D)));
+        assertEquals(2L * 2 * 3 * 5, profiler.getStatistics().get(0).getFlops());
+    }
+
+    @Test void testDisablingAndReset() {
+        neuralNetwork.setProfiler(profiler);
+        neuralNetwork.calculateResponse(List.of(0.1, 0.2, 0.3, 0.4));
+        neuralNetwork.setProfiler(null);
+        neuralNetwork.calculateResponse(List.of(0.1, 0.2, 0.3, 0.4));
+        assertEquals(1, profiler.getStatistics().get(0).getCount());
+        profiler.reset();
+        assertTrue(profiler.getStatistics().isEmpty());
+    }
+
+}
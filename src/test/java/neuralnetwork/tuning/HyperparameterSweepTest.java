@@ -0,0 +1,59 @@
+package neuralnetwork.tuning;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperparameterSweepTest {
+
+    private final Map<List<Double>, List<Double>> dataset = IntStream.range(0, 40)
+            .mapToObj(i -> List.of(i % 8 / 8D, i / 8 / 5D)).distinct()
+            .collect(toMap(Function.identity(), inputs -> inputs.get(0) > inputs.get(1) ? List.of(1D, 0D)
+                    : List.of(0D, 1D)));
+    private HyperparameterSweep sweep;
+
+    @BeforeEach void prepareSweep() {
+        sweep = new HyperparameterSweep(dataset, dataset, 2, 2);
+        sweep.setSeed(7L);
+        sweep.addConfigurations(new double[] { 0.001, 0.5 }, new int[] { 2 }, new int[] { 6 });
+        sweep.addConfiguration(1, 4, 4);
+        sweep.addConfiguration(0.1);
+    }
+
+    @Test void testRunPrunesConfigurations() throws InterruptedException {
+        sweep.addConfiguration(0.2, 3);
+        sweep.addConfiguration(0.3, 5);
+        final List<SweepResult> results = sweep.run(2, 3, 2, 2);
+        assertEquals(8, results.size());
+        assertEquals(IntStream.of(1, 1, 1, 1, 2, 2, 3, 3).sum(),
+                results.stream().mapToInt(SweepResult::getNumberOfRounds).sum());
+        assertEquals(2 + 4 + 8, results.get(0).getNumberOfIterations());
+        assertEquals(2, results.get(results.size() - 1).getNumberOfIterations());
+    }
+
+    @Test void testResultsAreRanked() throws InterruptedException {
+        final List<SweepResult> results = sweep.run(5, 1, 2, 3);
+        for (int i = 1; i < results.size(); ++i) {
+            assertTrue(results.get(i - 1).getAccuracy() >= results.get(i).getAccuracy());
+        }
+        assertEquals(results.size(), HyperparameterSweep.formatResults(results).split(System.lineSeparator()).length);
+    }
+
+    @Test void testRunWithReductionFactorBelowTwoThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> sweep.run(1, 1, 1, 1));
+    }
+
+    @Test void testEmptyTestingMapThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperparameterSweep(dataset, Map.of(), 2, 2));
+    }
+
+}